@@ -7,10 +7,8 @@ import pacman.game.Game;
 import pacman.game.GameView;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Random;
 
 /*
@@ -18,142 +16,176 @@ import java.util.Random;
  * fill in the getMove() method. Any additional classes you write should either
  * be placed in this package or sub-packages (e.g., entrants.pacman.username).
  */
-public class AStarPacMan extends PacmanController {
-	private static final Random RANDOM = new Random();
+public class AStarPacMan extends PacmanController implements ReadOnlyController {
+	private static final int UNSEEN = Integer.MAX_VALUE;
+
+	private final Random random = new Random();
 	private Game game;
 	private int pacmanCurrentNodeIndex;
 	MOVE pacmanLastMoveMade;
-	int minGhostDistanceBase = 100; // 80, 100
-	private Integer target;
+	int safetyHorizon = 20; // Ticks ahead in which a ghost getting somewhere before Ms Pac-Man makes it unsafe
+	int dangerCost = 100; // Extra cost of stepping on an unsafe node, the detour in steps worth taking to avoid one
+	boolean incremental = true; // Repair the last tick's plan with IncrementalPlanner instead of a new A* search
+	boolean pillTour = true; // Clear pills in the order PillTourPlanner plans instead of nearest first
+	private final GhostArrivalMap ghostArrivals = new GhostArrivalMap();
+	private final NearestPillIndex pillIndex = new NearestPillIndex();
+	private final PillTourPlanner tourPlanner = new PillTourPlanner();
+	private int target;
 	private TARGET_TYPE targerType;
 	private boolean targetFound;
 
+	// A* state, kept between ticks so searching allocates nothing
+	private final NodeHeap open = new NodeHeap();
+	private final BitSet closed = new BitSet();
+	private int[] gScore = new int[0];
+	private int[] steps = new int[0]; // Ticks Ms Pac-Man needs to get to the node on its best path
+	private int[] parent = new int[0];
+
+	// Incremental planning state
+	private final IncrementalPlanner planner = new IncrementalPlanner();
+	private int[] nodeCost = new int[0];
+
+	// The best path, from the target back to Ms Pac-Man
+	private int[] path = new int[0];
+	private int pathLength;
+
 	// Using A* algorithms
 	public MOVE getMove(Game game, long timeDue) {
 		this.game = game;
 		pacmanCurrentNodeIndex = game.getPacmanCurrentNodeIndex();
 		pacmanLastMoveMade = game.getPacmanLastMoveMade();
+		ghostArrivals.update(game, null);
+		pillIndex.update(game);
 
-		Path bestPath = getPath();
-		bestPath.process();
-		bestPath.summary(game);
-
-		MOVE bestPathMove = game.getMoveToMakeToReachDirectNeighbour(pacmanCurrentNodeIndex, bestPath.start);
+		target = getTarget(false);
+		targetFound = target != -1 && target != pacmanCurrentNodeIndex
+				&& (incremental ? planIncrementally(pacmanCurrentNodeIndex, target) : findPath(pacmanCurrentNodeIndex, target));
 
 		// No good paths
 		if (!targetFound) {
-			bestPathMove = pacmanLastMoveMade;
+			return pacmanLastMoveMade;
 		}
 
-		return bestPathMove;
+		render();
+		return game.getMoveToMakeToReachDirectNeighbour(pacmanCurrentNodeIndex, path[pathLength - 2]);
 	}
 
-	public Path getPath() {
-		target = getTarget(false);
-		targetFound = false;
-		int currentNode = pacmanCurrentNodeIndex;
-
-		List<Segment> targetSegments = new ArrayList<Segment>();
-		List<Integer> visitedNode = new ArrayList<Integer>();
-
-		boolean hasValidMove = true;
-
-		while (!targetFound && hasValidMove) {
-			hasValidMove = false;
-
-			for (Segment segment : getOrderedSegments(currentNode)) {
-				currentNode = segment.start;
-
-				if (isSafe(currentNode, segment) && !visitedNode.contains(currentNode)) {
-					if (!targetSegments.isEmpty()) {
-						Segment lastSegment = targetSegments.get(targetSegments.size() - 1);
-
-						lastSegment.end = segment.start;
-						segment.parent = lastSegment;
-					}
-
-					if (currentNode == target) {
-						targetFound = true;
-						segment.end = segment.start;
-					}
+	/**
+	 * A* from start to target over the maze graph. A step costs 1, and dangerCost more onto a node a ghost can reach
+	 * first; the shortest path distance, which never overestimates, guides the search. Leaves the cheapest path in
+	 * path and returns whether there is one.
+	 */
+	private boolean findPath(int start, int target) {
+		int nodes = game.getNumberOfNodes();
+		if (gScore.length != nodes) {
+			gScore = new int[nodes];
+			steps = new int[nodes];
+			parent = new int[nodes];
+			path = new int[nodes + 1];
+		}
+		Arrays.fill(gScore, UNSEEN);
+		closed.clear();
+		open.reset(nodes);
+
+		gScore[start] = 0;
+		steps[start] = 0;
+		parent[start] = -1;
+		open.push(start, game.getShortestPathDistance(start, target));
+
+		while (!open.isEmpty()) {
+			int node = open.pop();
+			if (node == target) {
+				pathLength = 0;
+				for (int current = target; current != -1; current = parent[current]) {
+					path[pathLength++] = current;
+				}
+				return true;
+			}
+			closed.set(node);
 
-					targetSegments.add(segment);
-					visitedNode.add(currentNode);
-					hasValidMove = true;
-					break;
+			for (MOVE move : game.getPossibleMoves(node)) {
+				int next = game.getNeighbour(node, move);
+				if (closed.get(next)) {
+					continue;
+				}
+				int nextSteps = steps[node] + 1;
+				int cost = gScore[node] + 1 + (isSafe(next, nextSteps) ? 0 : dangerCost);
+				if (cost < gScore[next]) {
+					gScore[next] = cost;
+					steps[next] = nextSteps;
+					parent[next] = node;
+					open.push(next, cost + game.getShortestPathDistance(next, target));
 				}
 			}
 		}
-
-		return new Path(targetSegments);
+		return false;
 	}
 
-	private List<Segment> getOrderedSegments(int state) {
-		List<Segment> segments = new ArrayList<Segment>();
-
-		for (MOVE move : game.getPossibleMoves(state)) {
-			int newState = game.getNeighbour(state, move);
-
-			Segment s = new Segment();
-			s.heuristicScore = game.getShortestPathDistance(newState, target);
-			s.start = newState;
-			s.direction = move;
+	/**
+	 * The same search as {@link #findPath}, repaired from the last tick's by {@link IncrementalPlanner} instead of
+	 * started afresh. Costs are set per node for the whole tick, so Ms Pac-Man's time to a node is taken to be her
+	 * shortest path distance to it.
+	 */
+	private boolean planIncrementally(int start, int target) {
+		int nodes = game.getNumberOfNodes();
+		if (nodeCost.length != nodes) {
+			nodeCost = new int[nodes];
+			path = new int[nodes + 1];
+		}
+		for (int node = 0; node < nodes; node++) {
+			int distance = game.getShortestPathDistance(start, node);
+			nodeCost[node] = distance == -1 || isSafe(node, distance) ? 1 : 1 + dangerCost;
+		}
 
-			segments.add(s);
+		if (planner.plan(game, start, target, nodeCost) == -1) {
+			return false;
 		}
 
-		Collections.sort(segments, new SegmentHeuristicComparator());
+		// Same order as findPath: target first
+		int length = planner.path(path);
+		for (int i = 0, j = length - 1; i < j; i++, j--) {
+			int node = path[i];
+			path[i] = path[j];
+			path[j] = node;
+		}
+		path[length] = start;
+		pathLength = length + 1;
+		return true;
+	}
 
-		return segments;
+	private void render() {
+		for (int i = 0; i + 1 < pathLength; i++) {
+			boolean safe = incremental ? nodeCost[path[i]] == 1 : gScore[path[i]] - gScore[path[i + 1]] == 1;
+			GameView.addLines(game, safe ? Color.GREEN : Color.RED, path[i + 1], path[i]);
+		}
 	}
 
 	private MOVE getRandomMove() {
 		MOVE[] possibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex, pacmanLastMoveMade);
 
-		return possibleMoves[RANDOM.nextInt(possibleMoves.length)];
+		return possibleMoves[random.nextInt(possibleMoves.length)];
 	}
 
-	private boolean isSafe(int currentNode, Segment currentSegment) {
-		List<Integer> ghostNodeIndices = new ArrayList<>();
-		GHOST[] ghosts = GHOST.values();
-		for (GHOST ghost : ghosts)
-			ghostNodeIndices.add(game.getGhostCurrentNodeIndex(ghost));
-
-		if (ghostNodeIndices.contains(currentNode)) {
-			for (GHOST ghost : ghosts) {
-				if (game.getGhostCurrentNodeIndex(ghost) == currentNode) {
-					if (!game.isGhostEdible(ghost)
-							&& game.getGhostLastMoveMade(ghost) == currentSegment.direction.opposite()
-							&& game.getEuclideanDistance(pacmanCurrentNodeIndex,
-									currentNode) <= minGhostDistanceBase) {
-						return false;
-					}
-				}
-			}
-		}
-
-		return true;
+	// Not safe if a ghost can get to the node before Ms Pac-Man, who gets there after pacmanTime ticks
+	private boolean isSafe(int currentNode, int pacmanTime) {
+		return pacmanTime > safetyHorizon || ghostArrivals.isSafe(currentNode, pacmanTime);
 	}
 
-	private Integer getTarget(boolean random) {
-		Integer target = null;
+	// The node to head for, -1 if there is none
+	private int getTarget(boolean random) {
+		int target = -1;
 
 		if (random) {
-			target = game.getActivePillsIndices()[RANDOM.nextInt(game.getActivePillsIndices().length)];
+			target = game.getActivePillsIndices()[this.random.nextInt(game.getActivePillsIndices().length)];
 			targerType = TARGET_TYPE.PILL;
 		}
 
-		// Get all ghosts node index in a list
 		int minGhostDistance = Integer.MAX_VALUE;
-		List<Integer> ghostNodeIndices = new ArrayList<>();
-		GHOST[] ghosts = GHOST.values();
-		if (target == null) {
-			for (GHOST ghost : ghosts) {
+		if (target == -1) {
+			for (GHOST ghost : GHOST.values()) {
 				int ghostIndex = game.getGhostCurrentNodeIndex(ghost);
 				int ghostDistance = game.getShortestPathDistance(ghostIndex, pacmanCurrentNodeIndex);
 
-				ghostNodeIndices.add(ghostIndex);
-
 				if (game.isGhostEdible(ghost) && ghostDistance != -1 && ghostDistance < minGhostDistance) {
 					target = ghostIndex;
 					targerType = TARGET_TYPE.GHOST;
@@ -163,30 +195,17 @@ public class AStarPacMan extends PacmanController {
 		}
 
 		// No edible ghost
-		int minPowerPillDistance = Integer.MAX_VALUE;
-		if (target == null) {
-			for (int powerPillIndex : game.getActivePowerPillsIndices()) {
-				int powerPillDistance = game.getShortestPathDistance(powerPillIndex, pacmanCurrentNodeIndex);
-				if (powerPillDistance != -1 && powerPillDistance < minPowerPillDistance) {
-					target = powerPillIndex;
-					targerType = TARGET_TYPE.POWER_PILL;
-					minPowerPillDistance = powerPillDistance;
-				}
-			}
+		if (target == -1) {
+			target = pillIndex.nearest(pacmanCurrentNodeIndex, NearestPillIndex.POWER_PILLS);
+			targerType = TARGET_TYPE.POWER_PILL;
 		}
 
 		// No edible ghost and powerpill
-		int minPillDistance = Integer.MAX_VALUE;
-		if (target == null) {
-			for (int pillIndex : game.getActivePillsIndices()) {
-				int pillDistance = game.getManhattanDistance(pillIndex, pacmanCurrentNodeIndex);
-
-				if (pillDistance != -1 && pillDistance < minPillDistance) {
-					target = pillDistance;
-					targerType = TARGET_TYPE.PILL;
-					minPillDistance = pillDistance;
-				}
-			}
+		if (target == -1) {
+			target = pillTour
+					? tourPlanner.target(game, ghostArrivals, safetyHorizon)
+					: pillIndex.nearest(pacmanCurrentNodeIndex, NearestPillIndex.PILLS);
+			targerType = TARGET_TYPE.PILL;
 		}
 
 		// System.out.println("Current target is " + targerType + " at position: " + target);
@@ -194,125 +213,10 @@ public class AStarPacMan extends PacmanController {
 		return target;
 	}
 
-	public class PathValueComparator implements Comparator<Path> {
-		@Override
-		public int compare(Path path1, Path path2) {
-			return path2.value - path1.value;
-		}
-	}
-
-	public class SegmentHeuristicComparator implements Comparator<Segment> {
-		@Override
-		public int compare(Segment seg1, Segment seg2) {
-			return seg1.heuristicScore - seg2.heuristicScore;
-		}
-	}
-
-	public class Path {
-		public int start;
-		public int end;
-		public List<GHOST> ghosts = new ArrayList<GHOST>();
-		public int powerPillsCount = 0;
-		public int pillsCount = 0;
-		public List<Segment> segments = new ArrayList<Segment>();
-		public int length;
-		public String description = "";
-		public boolean safe = true;
-		public int value = 0;
-
-		// Important: Segments must be in sequence
-		Path(List<Segment> segments) {
-			this.segments = segments;
-		}
-
-		public void render(Game game) {
-			for (Segment segment : segments)
-				GameView.addLines(game, segment.color, segment.start, segment.end);
-		}
-
-		public void summary(Game game) {
-			// String ghostsName = "";
-			// for (GHOST ghost : ghosts)
-			// ghostsName += ghost.name() + " ";
-
-			// String text = description + "::" + " value:" + value + ", safe:" + (safe ?
-			// "safe" : "unsafe") + ", pills:"
-			// + pillsCount + ", power pills:" + powerPillsCount + ", ghost:" + ghostsName;
-
-			// if (!safe)
-			// System.err.println(text);
-			// else
-			// System.out.println(text);
-
-			render(game);
-		}
-
-		public void process() {
-			int segmentsCount = segments.size();
-
-			if (segmentsCount > 0) {
-				Segment firstSegment = segments.get(0);
-				Segment lastSegment = segments.get(segmentsCount - 1);
-				start = firstSegment.start;
-				end = lastSegment.end;
-				length = lastSegment.lengthSoFar;
-				pillsCount = lastSegment.pillsCount;
-				value = pillsCount;
-				powerPillsCount = lastSegment.powerPillsCount;
-				int unsafeSegmentsCount = 0;
-
-				for (Segment segment : segments) {
-					if (!segment.ghosts.isEmpty()) {
-						ghosts.addAll(segment.ghosts);
-						for (GHOST ghost : ghosts)
-							if (game.isGhostEdible(ghost)) {
-								int distance = game.getShortestPathDistance(pacmanCurrentNodeIndex,
-										game.getGhostCurrentNodeIndex(ghost));
-								if (distance < 10)
-									value += 1;// 15;
-								else
-									value += 1;// 10;
-							}
-					}
-
-					if (segment.parent != null && !segment.parent.safe)
-						segment.safe = segment.parent.safe;
-
-					if (!segment.safe) {
-						unsafeSegmentsCount++;
-						value -= 10;
-						segment.color = Color.RED;
-					}
-
-					value += segment.powerPillsCount * 5;
-
-					description += segment.direction.toString() + " ";
-				}
-
-				if (unsafeSegmentsCount > 0)
-					safe = false;
-			}
-		}
-	}
-
-	public class Segment {
-		public int start;
-		public int end;
-		public int pillsCount = 0;
-		public int powerPillsCount = 0;
-		public int heuristicScore = Integer.MAX_VALUE;
-		public int lengthSoFar;
-		public MOVE direction;
-		public Segment parent;
-		public List<GHOST> ghosts = new ArrayList<>();
-		public Color color = Color.GREEN;
-		public boolean safe = true;
-	}
-
 	public enum TARGET_TYPE {
 		GHOST,
 		PILL,
 		POWER_PILL,
 	}
 
-}
\ No newline at end of file
+}
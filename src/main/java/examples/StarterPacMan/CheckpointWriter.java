@@ -0,0 +1,104 @@
+package examples.StarterPacMan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes {@link QTableCheckpoint}s, one file per maze (see {@link QTableRegistry#fileForMaze}), on a background thread
+ * so training does not wait for the disk. At most one write is in progress; checkpoints submitted while the previous
+ * ones are still being written are dropped without being taken, since the next ones will be newer anyway.
+ */
+final class CheckpointWriter implements Closeable {
+    private final Logger logger = LoggerFactory.getLogger(CheckpointWriter.class);
+    private final String fileName;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CheckpointWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending;
+    private int written;
+    private int dropped;
+
+    CheckpointWriter(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Takes the checkpoints and starts writing them, unless the previous ones are still being written, in which case
+     * they are not taken at all.
+     *
+     * @return whether the checkpoints are being written
+     */
+    synchronized boolean submit(Supplier<List<QTableCheckpoint>> takeCheckpoints) {
+        if (pending != null && !pending.isDone()) {
+            dropped++;
+            return false;
+        }
+        List<QTableCheckpoint> checkpoints = takeCheckpoints.get();
+        pending = writer.submit(() -> {
+            try {
+                write(checkpoints);
+            } catch (IOException e) {
+                logger.warn("Could not write checkpoint " + fileName, e);
+            }
+        });
+        return true;
+    }
+
+    synchronized int getWritten() {
+        return written;
+    }
+
+    synchronized int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Waits for the write in progress, if any, then writes the final checkpoints on the calling thread.
+     */
+    void finish(List<QTableCheckpoint> checkpoints) throws IOException {
+        close();
+        write(checkpoints);
+    }
+
+    private void write(List<QTableCheckpoint> checkpoints) throws IOException {
+        for (QTableCheckpoint checkpoint : checkpoints) {
+            checkpoint.write(QTableRegistry.fileForMaze(fileName, checkpoint.mazeIndex));
+        }
+        synchronized (this) {
+            written++;
+        }
+    }
+
+    /**
+     * Waits for the write in progress, if any, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        Future<?> last;
+        synchronized (this) {
+            last = pending;
+        }
+        try {
+            if (last != null) {
+                last.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Could not write checkpoint " + fileName, e.getCause());
+        } finally {
+            writer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package examples.StarterPacMan;
+
+import pacman.controllers.Controller;
+import pacman.controllers.MASController;
+import pacman.game.internal.POType;
+
+import static pacman.game.Constants.MOVE;
+
+/**
+ * Entry point of the worker JVMs started by {@link MyExecutor#runExperimentSharded}. Plays one range of games of a
+ * sharded experiment and writes the results to the given file.
+ * <p>
+ * Arguments: pacManClass ghostClass baseSeed fromGame toGame resultFile pacmanPO ghostPO ghostsMessage tickLimit
+ * timeLimit poType sightLimit
+ */
+public class ExperimentWorker {
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        if (args.length != 13) {
+            System.err.println("Usage: ExperimentWorker pacManClass ghostClass baseSeed fromGame toGame resultFile "
+                    + "pacmanPO ghostPO ghostsMessage tickLimit timeLimit poType sightLimit");
+            System.exit(2);
+        }
+
+        Controller<MOVE> pacManController = (Controller<MOVE>) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        MASController ghostController = (MASController) Class.forName(args[1]).getDeclaredConstructor().newInstance();
+
+        MyExecutor executor = new MyExecutor.Builder()
+                .setPacmanPO(Boolean.parseBoolean(args[6]))
+                .setGhostPO(Boolean.parseBoolean(args[7]))
+                .setGhostsMessage(Boolean.parseBoolean(args[8]))
+                .setTickLimit(Integer.parseInt(args[9]))
+                .setTimeLimit(Integer.parseInt(args[10]))
+                .setPOType(POType.valueOf(args[11]))
+                .setSightLimit(Integer.parseInt(args[12]))
+                .build();
+
+        executor.runShard(pacManController, ghostController,
+                Long.parseLong(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]), args[5]);
+    }
+}
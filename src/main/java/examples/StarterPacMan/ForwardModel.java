@@ -0,0 +1,650 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Random;
+
+import static pacman.game.Constants.AWARD_LIFE_LEFT;
+import static pacman.game.Constants.COMMON_LAIR_TIME;
+import static pacman.game.Constants.EAT_DISTANCE;
+import static pacman.game.Constants.EDIBLE_TIME;
+import static pacman.game.Constants.EDIBLE_TIME_REDUCTION;
+import static pacman.game.Constants.EXTRA_LIFE_SCORE;
+import static pacman.game.Constants.GHOST_EAT_SCORE;
+import static pacman.game.Constants.GHOST_REVERSAL;
+import static pacman.game.Constants.GHOST_SPEED_REDUCTION;
+import static pacman.game.Constants.LAIR_REDUCTION;
+import static pacman.game.Constants.LEVEL_LIMIT;
+import static pacman.game.Constants.LEVEL_RESET_REDUCTION;
+import static pacman.game.Constants.MAX_TIME;
+import static pacman.game.Constants.NUM_MAZES;
+import static pacman.game.Constants.PILL;
+import static pacman.game.Constants.POWER_PILL;
+
+/**
+ * A small simulator of the full-observability game for lookahead, a fraction of the cost of {@link Game#copy()} and
+ * {@link Game#advanceGame}. The whole state is a handful of ints, int arrays and a long[] pill bitboard, so
+ * {@link #copyFrom} copies it without allocating, and a tick is a few array lookups.
+ * <p>
+ * The mazes are read from data/mazes/*.txt. {@link #advance} follows the rules of {@link Game#advanceGame} that
+ * matter for planning: Ms Pac-Man and ghost movement, ghost reversals, eating pills, power pills, ghosts and Ms
+ * Pac-Man, edible and lair times, extra life, level and game end. Where the engine draws random numbers (a ghost
+ * given an impossible move at a dead end, the rare global reversal) this model draws its own, so it only agrees with
+ * the engine tick for tick when every ghost is given a legal move; {@link ForwardModelCheck} measures how well it
+ * agrees.
+ * <p>
+ * Moves are {@link MOVE#ordinal()}s, ghosts are {@link GHOST#ordinal()}s.
+ */
+final class ForwardModel {
+	static final int NEUTRAL = MOVE.NEUTRAL.ordinal();
+
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final GHOST[] GHOSTS = GHOST.values();
+	private static final int DIRECTIONS = 4;
+	private static final int NUM_GHOSTS = GHOSTS.length;
+	private static final String[] MAZE_FILES = {"a", "b", "c", "d"};
+	private static final MazeData[] MAZES = new MazeData[NUM_MAZES];
+
+	/**
+	 * The parts of a maze the rules need, per node: the neighbour in each direction, the pill and power pill index,
+	 * and the nodes within eating distance.
+	 */
+	private static final class MazeData {
+		final int numberOfNodes;
+		final int numberOfPills;
+		final int numberOfPowerPills;
+		final int initialPacManNode;
+		final int lairNode;
+		final int initialGhostNode;
+		final int[] neighbour; // node * 4 + move, -1 if there is none
+		final int[] pillIndex;
+		final int[] powerPillIndex;
+		final int[] nearbyStart;
+		final int[] nearby;
+
+		// Zobrist keys of Ms Pac-Man and each ghost on a node with a last move, of edible ghosts and of every pill
+		final long[] pacmanKey; // node * 5 + move
+		final long[] ghostKey; // (ghost * nodes + node) * 5 + move
+		final long[] edibleKey;
+		final long[] pillKey;
+		final long[] powerPillKey;
+
+		MazeData(String name) {
+			InputStream in = ForwardModel.class.getResourceAsStream("/data/mazes/" + name + ".txt");
+			if (in == null) {
+				throw new IllegalStateException("Maze " + name + " not found");
+			}
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+				String[] header = reader.readLine().split("\t");
+				initialPacManNode = Integer.parseInt(header[1]);
+				lairNode = Integer.parseInt(header[2]);
+				initialGhostNode = Integer.parseInt(header[3]);
+				numberOfNodes = Integer.parseInt(header[4]);
+				numberOfPills = Integer.parseInt(header[5]);
+				numberOfPowerPills = Integer.parseInt(header[6]);
+
+				neighbour = new int[numberOfNodes * DIRECTIONS];
+				pillIndex = new int[numberOfNodes];
+				powerPillIndex = new int[numberOfNodes];
+				for (int i = 0; i < numberOfNodes; i++) {
+					String[] fields = reader.readLine().split("\t");
+					int node = Integer.parseInt(fields[0]);
+					for (int direction = 0; direction < DIRECTIONS; direction++) {
+						neighbour[node * DIRECTIONS + direction] = Integer.parseInt(fields[3 + direction]);
+					}
+					pillIndex[node] = Integer.parseInt(fields[7]);
+					powerPillIndex[node] = Integer.parseInt(fields[8]);
+				}
+			} catch (IOException | RuntimeException e) {
+				throw new IllegalStateException("Could not read maze " + name, e);
+			}
+
+			// The nodes within EAT_DISTANCE of every node, by breadth first search
+			nearbyStart = new int[numberOfNodes + 1];
+			int[] found = new int[numberOfNodes * 8];
+			int size = 0;
+			int[] distance = new int[numberOfNodes];
+			Arrays.fill(distance, -1);
+			for (int node = 0; node < numberOfNodes; node++) {
+				nearbyStart[node] = size;
+				int head = size;
+				distance[node] = 0;
+				found = ensure(found, size + 1);
+				found[size++] = node;
+				while (head < size) {
+					int current = found[head++];
+					if (distance[current] == EAT_DISTANCE) {
+						continue;
+					}
+					for (int direction = 0; direction < DIRECTIONS; direction++) {
+						int next = neighbour[current * DIRECTIONS + direction];
+						if (next != -1 && distance[next] == -1) {
+							distance[next] = distance[current] + 1;
+							found = ensure(found, size + 1);
+							found[size++] = next;
+						}
+					}
+				}
+				for (int i = nearbyStart[node]; i < size; i++) {
+					distance[found[i]] = -1;
+				}
+			}
+			nearbyStart[numberOfNodes] = size;
+			nearby = Arrays.copyOf(found, size);
+
+			// Fixed per maze, so hashes are the same from run to run
+			Random keys = new Random(name.hashCode());
+			pacmanKey = randomKeys(keys, numberOfNodes * MOVES.length);
+			ghostKey = randomKeys(keys, NUM_GHOSTS * numberOfNodes * MOVES.length);
+			edibleKey = randomKeys(keys, NUM_GHOSTS);
+			pillKey = randomKeys(keys, numberOfPills);
+			powerPillKey = randomKeys(keys, numberOfPowerPills);
+		}
+
+		private static long[] randomKeys(Random random, int count) {
+			long[] keys = new long[count];
+			for (int i = 0; i < count; i++) {
+				keys[i] = random.nextLong();
+			}
+			return keys;
+		}
+
+		private static int[] ensure(int[] array, int capacity) {
+			return capacity <= array.length ? array : Arrays.copyOf(array, array.length * 2);
+		}
+
+		boolean isNearby(int node, int other) {
+			for (int i = nearbyStart[node]; i < nearbyStart[node + 1]; i++) {
+				if (nearby[i] == other) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static synchronized MazeData maze(int mazeIndex) {
+		if (MAZES[mazeIndex] == null) {
+			MAZES[mazeIndex] = new MazeData(MAZE_FILES[mazeIndex]);
+		}
+		return MAZES[mazeIndex];
+	}
+
+	private final Random random;
+	private double reversalChance = GHOST_REVERSAL;
+
+	private MazeData maze;
+	private int mazeIndex;
+	private int level;
+	private int totalTime;
+	private int levelTime;
+	private int score;
+	private int lives;
+	private boolean extraLife;
+	private boolean gameOver;
+	private int ghostEatMultiplier;
+	private boolean powerPillWasEaten;
+	private boolean pacmanWasEaten;
+
+	private int pacmanNode;
+	private int pacmanMove;
+	private final int[] ghostNode = new int[NUM_GHOSTS];
+	private final int[] ghostMove = new int[NUM_GHOSTS];
+	private final int[] edibleTime = new int[NUM_GHOSTS];
+	private final int[] lairTime = new int[NUM_GHOSTS];
+
+	private long[] pills = new long[0];
+	private long powerPills;
+	private int pillCount;
+
+	// Zobrist hash of the positions, last moves, edible ghosts and pills, kept up to date by every change
+	private long hash;
+
+	// Scratch for advance(MOVE, EnumMap)
+	private final int[] ghostMoveScratch = new int[NUM_GHOSTS];
+
+	ForwardModel(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * The chance per tick that all ghosts reverse, as in the engine. Zero makes the model deterministic for legal
+	 * ghost moves.
+	 */
+	void setReversalChance(double reversalChance) {
+		this.reversalChance = reversalChance;
+	}
+
+	/**
+	 * Takes over the state of the game. The engine does not expose whether the extra life was already awarded or how
+	 * many ghosts were eaten since the last power pill; the first is read off the score, the second is taken to be
+	 * the number of ghosts in the lair while others are still edible.
+	 *
+	 * @throws IllegalArgumentException if the game is partially observable, since unseen pills and ghosts cannot be
+	 *                                  loaded
+	 */
+	void load(Game game) {
+		if (game.isGamePo()) {
+			throw new IllegalArgumentException("Cannot load a partially observable game");
+		}
+		mazeIndex = game.getMazeIndex();
+		maze = maze(mazeIndex);
+		level = game.getCurrentLevel();
+		totalTime = game.getTotalTime();
+		levelTime = game.getCurrentLevelTime();
+		score = game.getScore();
+		lives = game.getPacmanNumberOfLivesRemaining();
+		extraLife = score >= EXTRA_LIFE_SCORE;
+		gameOver = game.gameOver();
+		powerPillWasEaten = game.wasPowerPillEaten();
+		pacmanWasEaten = game.wasPacManEaten();
+
+		pacmanNode = game.getPacmanCurrentNodeIndex();
+		pacmanMove = game.getPacmanLastMoveMade().ordinal();
+		boolean anyEdible = false;
+		int inLair = 0;
+		for (GHOST ghost : GHOSTS) {
+			int g = ghost.ordinal();
+			ghostNode[g] = game.getGhostCurrentNodeIndex(ghost);
+			ghostMove[g] = game.getGhostLastMoveMade(ghost).ordinal();
+			edibleTime[g] = game.getGhostEdibleTime(ghost);
+			lairTime[g] = game.getGhostLairTime(ghost);
+			anyEdible |= edibleTime[g] > 0;
+			inLair += lairTime[g] > 0 ? 1 : 0;
+		}
+		ghostEatMultiplier = anyEdible ? 1 << inLair : 1;
+
+		resetPills();
+		for (int i = 0; i < maze.numberOfPills; i++) {
+			if (!game.isPillStillAvailable(i)) {
+				pills[i >>> 6] &= ~(1L << i);
+				pillCount--;
+			}
+		}
+		for (int i = 0; i < maze.numberOfPowerPills; i++) {
+			if (!game.isPowerPillStillAvailable(i)) {
+				powerPills &= ~(1L << i);
+			}
+		}
+		hash = computeHash();
+	}
+
+	/**
+	 * Makes this model a copy of the other one without allocating, unless their mazes need bitboards of different
+	 * sizes.
+	 */
+	void copyFrom(ForwardModel other) {
+		maze = other.maze;
+		mazeIndex = other.mazeIndex;
+		level = other.level;
+		totalTime = other.totalTime;
+		levelTime = other.levelTime;
+		score = other.score;
+		lives = other.lives;
+		extraLife = other.extraLife;
+		gameOver = other.gameOver;
+		ghostEatMultiplier = other.ghostEatMultiplier;
+		powerPillWasEaten = other.powerPillWasEaten;
+		pacmanWasEaten = other.pacmanWasEaten;
+		pacmanNode = other.pacmanNode;
+		pacmanMove = other.pacmanMove;
+		System.arraycopy(other.ghostNode, 0, ghostNode, 0, NUM_GHOSTS);
+		System.arraycopy(other.ghostMove, 0, ghostMove, 0, NUM_GHOSTS);
+		System.arraycopy(other.edibleTime, 0, edibleTime, 0, NUM_GHOSTS);
+		System.arraycopy(other.lairTime, 0, lairTime, 0, NUM_GHOSTS);
+		if (pills.length != other.pills.length) {
+			pills = new long[other.pills.length];
+		}
+		System.arraycopy(other.pills, 0, pills, 0, other.pills.length);
+		powerPills = other.powerPills;
+		pillCount = other.pillCount;
+		hash = other.hash;
+	}
+
+	/**
+	 * {@link #advance(int, int[])} with the engine's types. Ghosts missing from the map get no move, as in the
+	 * engine.
+	 */
+	void advance(MOVE pacmanMove, EnumMap<GHOST, MOVE> ghostMoves) {
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			MOVE move = ghostMoves == null ? MOVES[ghostMove[g]] : ghostMoves.get(GHOSTS[g]);
+			ghostMoveScratch[g] = move == null ? NEUTRAL : move.ordinal();
+		}
+		advance(pacmanMove.ordinal(), ghostMoveScratch);
+	}
+
+	/**
+	 * One tick of the game in the engine's order: Ms Pac-Man moves and eats the pill she lands on, the ghosts move or
+	 * reverse, whatever meets is eaten, then the lair timers run.
+	 *
+	 * @param move       Ms Pac-Man's move, she keeps going her way if it is impossible
+	 * @param ghostMoves a move per ghost, NEUTRAL for none; a ghost keeps going its way if its move is impossible
+	 */
+	void advance(int move, int[] ghostMoves) {
+		if (gameOver) {
+			return;
+		}
+		pacmanWasEaten = false;
+
+		// Ms Pac-Man
+		if (move == NEUTRAL || maze.neighbour[pacmanNode * DIRECTIONS + move] == -1) {
+			move = pacmanMove != NEUTRAL && maze.neighbour[pacmanNode * DIRECTIONS + pacmanMove] != -1 ? pacmanMove : NEUTRAL;
+		}
+		movePacman(move == NEUTRAL ? pacmanNode : maze.neighbour[pacmanNode * DIRECTIONS + move], move);
+		eatPills();
+
+		// Ghosts, unless they all reverse, which they do at once when a power pill was just eaten
+		boolean reverse = powerPillWasEaten || (reversalChance > 0 && random.nextDouble() < reversalChance);
+		boolean reversed = false;
+		if (reverse && levelTime > 1) {
+			for (int g = 0; g < NUM_GHOSTS; g++) {
+				if (lairTime[g] == 0 && ghostMove[g] != NEUTRAL) {
+					int back = opposite(ghostMove[g]);
+					moveGhost(g, maze.neighbour[ghostNode[g] * DIRECTIONS + back], back);
+					reversed = true;
+				}
+			}
+		}
+		if (!reversed) {
+			for (int g = 0; g < NUM_GHOSTS; g++) {
+				if (lairTime[g] == 0 && (edibleTime[g] == 0 || edibleTime[g] % GHOST_SPEED_REDUCTION != 0)) {
+					int direction = ghostDirection(g, ghostMoves[g]);
+					moveGhost(g, maze.neighbour[ghostNode[g] * DIRECTIONS + direction], direction);
+				}
+			}
+		}
+
+		feast();
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			if (lairTime[g] > 0 && --lairTime[g] == 0) {
+				moveGhost(g, maze.initialGhostNode, ghostMove[g]);
+			}
+		}
+		if (!extraLife && score >= EXTRA_LIFE_SCORE) {
+			extraLife = true;
+			lives++;
+		}
+		totalTime++;
+		levelTime++;
+
+		if (totalTime + 1 > MAX_TIME) {
+			gameOver = true;
+			score += lives * AWARD_LIFE_LEFT;
+		} else if ((pillCount == 0 && powerPills == 0) || levelTime >= LEVEL_LIMIT) {
+			newLevel();
+		}
+	}
+
+	private int ghostDirection(int g, int move) {
+		int node = ghostNode[g];
+		int last = ghostMove[g];
+		if (move != NEUTRAL && maze.neighbour[node * DIRECTIONS + move] != -1 && move != opposite(last)) {
+			return move;
+		}
+		if (last != NEUTRAL && maze.neighbour[node * DIRECTIONS + last] != -1) {
+			return last;
+		}
+		// A dead end for the way it was going, the engine picks at random
+		int options = 0;
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			if (maze.neighbour[node * DIRECTIONS + direction] != -1 && direction != opposite(last)) {
+				options++;
+			}
+		}
+		int choice = random.nextInt(options);
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			if (maze.neighbour[node * DIRECTIONS + direction] != -1 && direction != opposite(last) && choice-- == 0) {
+				return direction;
+			}
+		}
+		throw new IllegalStateException("Ghost " + GHOSTS[g] + " is stuck at node " + node);
+	}
+
+	/**
+	 * Ghosts within eating distance eat Ms Pac-Man or are eaten. If she is eaten, everyone goes back to the start or
+	 * the game is over.
+	 */
+	private void feast() {
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			if (lairTime[g] > 0 || !maze.isNearby(pacmanNode, ghostNode[g])) {
+				continue;
+			}
+			if (edibleTime[g] > 0) {
+				score += GHOST_EAT_SCORE * ghostEatMultiplier;
+				ghostEatMultiplier *= 2;
+				setEdibleTime(g, 0);
+				lairTime[g] = (int) (COMMON_LAIR_TIME * Math.pow(LAIR_REDUCTION, level % LEVEL_RESET_REDUCTION));
+				moveGhost(g, maze.lairNode, NEUTRAL);
+			} else {
+				pacmanWasEaten = true;
+				lives--;
+				if (lives <= 0) {
+					gameOver = true;
+				} else {
+					resetPositions();
+				}
+				return;
+			}
+		}
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			if (edibleTime[g] > 0) {
+				setEdibleTime(g, edibleTime[g] - 1);
+			}
+		}
+	}
+
+	private void eatPills() {
+		powerPillWasEaten = false;
+		int pill = maze.pillIndex[pacmanNode];
+		if (pill >= 0 && (pills[pill >>> 6] & 1L << pill) != 0) {
+			pills[pill >>> 6] &= ~(1L << pill);
+			pillCount--;
+			hash ^= maze.pillKey[pill];
+			score += PILL;
+		}
+		int powerPill = maze.powerPillIndex[pacmanNode];
+		if (powerPill >= 0 && (powerPills & 1L << powerPill) != 0) {
+			powerPills &= ~(1L << powerPill);
+			hash ^= maze.powerPillKey[powerPill];
+			score += POWER_PILL;
+			ghostEatMultiplier = 1;
+			int time = (int) (EDIBLE_TIME * Math.pow(EDIBLE_TIME_REDUCTION, level % LEVEL_RESET_REDUCTION));
+			for (int g = 0; g < NUM_GHOSTS; g++) {
+				setEdibleTime(g, lairTime[g] == 0 ? time : 0);
+			}
+			powerPillWasEaten = true;
+		}
+	}
+
+	private void newLevel() {
+		mazeIndex = (mazeIndex + 1) % NUM_MAZES;
+		maze = maze(mazeIndex);
+		level++;
+		levelTime = 0;
+		resetPills();
+		resetPositions();
+	}
+
+	private void resetPositions() {
+		ghostEatMultiplier = 1;
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			ghostNode[g] = maze.lairNode;
+			ghostMove[g] = NEUTRAL;
+			edibleTime[g] = 0;
+			lairTime[g] = (int) (GHOSTS[g].initialLairTime * Math.pow(LAIR_REDUCTION, level % LEVEL_RESET_REDUCTION));
+		}
+		pacmanNode = maze.initialPacManNode;
+		pacmanMove = MOVE.LEFT.ordinal();
+		hash = computeHash();
+	}
+
+	private void resetPills() {
+		int words = (maze.numberOfPills + 63) >>> 6;
+		if (pills.length != words) {
+			pills = new long[words];
+		}
+		Arrays.fill(pills, 0);
+		for (int i = 0; i < maze.numberOfPills; i++) {
+			pills[i >>> 6] |= 1L << i;
+		}
+		pillCount = maze.numberOfPills;
+		powerPills = (1L << maze.numberOfPowerPills) - 1;
+	}
+
+	private void movePacman(int node, int move) {
+		hash ^= maze.pacmanKey[pacmanNode * MOVES.length + pacmanMove] ^ maze.pacmanKey[node * MOVES.length + move];
+		pacmanNode = node;
+		pacmanMove = move;
+	}
+
+	private void moveGhost(int g, int node, int move) {
+		int offset = g * maze.numberOfNodes;
+		hash ^= maze.ghostKey[(offset + ghostNode[g]) * MOVES.length + ghostMove[g]] ^ maze.ghostKey[(offset + node) * MOVES.length + move];
+		ghostNode[g] = node;
+		ghostMove[g] = move;
+	}
+
+	private void setEdibleTime(int g, int time) {
+		if ((edibleTime[g] > 0) != (time > 0)) {
+			hash ^= maze.edibleKey[g];
+		}
+		edibleTime[g] = time;
+	}
+
+	/**
+	 * The Zobrist hash from scratch, {@link #hash()} keeps it up to date incrementally.
+	 */
+	long computeHash() {
+		long result = maze.pacmanKey[pacmanNode * MOVES.length + pacmanMove];
+		for (int g = 0; g < NUM_GHOSTS; g++) {
+			result ^= maze.ghostKey[(g * maze.numberOfNodes + ghostNode[g]) * MOVES.length + ghostMove[g]];
+			if (edibleTime[g] > 0) {
+				result ^= maze.edibleKey[g];
+			}
+		}
+		for (int word = 0; word < pills.length; word++) {
+			for (long bits = pills[word]; bits != 0; bits &= bits - 1) {
+				result ^= maze.pillKey[word * 64 + Long.numberOfTrailingZeros(bits)];
+			}
+		}
+		for (long bits = powerPills; bits != 0; bits &= bits - 1) {
+			result ^= maze.powerPillKey[Long.numberOfTrailingZeros(bits)];
+		}
+		return result;
+	}
+
+	private static int opposite(int move) {
+		return move == NEUTRAL ? NEUTRAL : (move + 2) % DIRECTIONS;
+	}
+
+	/**
+	 * The moves Ms Pac-Man could make at the node, as {@link Game#getPossibleMoves(int, MOVE)}: every neighbour but
+	 * the way back, or every neighbour for NEUTRAL. Writes them to moves and returns how many there are.
+	 */
+	int possibleMoves(int node, int lastMove, int[] moves) {
+		int count = 0;
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			if (maze.neighbour[node * DIRECTIONS + direction] != -1 && (lastMove == NEUTRAL || direction != opposite(lastMove))) {
+				moves[count++] = direction;
+			}
+		}
+		return count;
+	}
+
+	int neighbour(int node, int move) {
+		return move == NEUTRAL ? -1 : maze.neighbour[node * DIRECTIONS + move];
+	}
+
+	boolean isPillAvailable(int pillIndex) {
+		return (pills[pillIndex >>> 6] & 1L << pillIndex) != 0;
+	}
+
+	boolean isPowerPillAvailable(int powerPillIndex) {
+		return (powerPills & 1L << powerPillIndex) != 0;
+	}
+
+	/**
+	 * Zobrist hash of Ms Pac-Man's and the ghosts' nodes and last moves, which ghosts are edible and the pills left,
+	 * the key for a {@link TranspositionTable}. States on different mazes hash with different keys.
+	 */
+	long hash() {
+		return hash;
+	}
+
+	int getMazeIndex() {
+		return mazeIndex;
+	}
+
+	int getCurrentLevel() {
+		return level;
+	}
+
+	int getTotalTime() {
+		return totalTime;
+	}
+
+	int getCurrentLevelTime() {
+		return levelTime;
+	}
+
+	int getScore() {
+		return score;
+	}
+
+	int getLives() {
+		return lives;
+	}
+
+	boolean gameOver() {
+		return gameOver;
+	}
+
+	/**
+	 * Whether Ms Pac-Man was eaten in the last tick. Unlike a drop in lives, this also catches the tick in which she
+	 * earns the extra life and is eaten.
+	 */
+	boolean wasPacManEaten() {
+		return pacmanWasEaten;
+	}
+
+	int getNumberOfActivePills() {
+		return pillCount;
+	}
+
+	int getNumberOfActivePowerPills() {
+		return Long.bitCount(powerPills);
+	}
+
+	int getPacmanNode() {
+		return pacmanNode;
+	}
+
+	int getPacmanMove() {
+		return pacmanMove;
+	}
+
+	int getGhostNode(int ghost) {
+		return ghostNode[ghost];
+	}
+
+	int getGhostMove(int ghost) {
+		return ghostMove[ghost];
+	}
+
+	int getGhostEdibleTime(int ghost) {
+		return edibleTime[ghost];
+	}
+
+	int getGhostLairTime(int ghost) {
+		return lairTime[ghost];
+	}
+}
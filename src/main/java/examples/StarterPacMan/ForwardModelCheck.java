@@ -0,0 +1,230 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.EnumMap;
+import java.util.Random;
+
+/**
+ * Differential check of {@link ForwardModel} against {@link Game}: plays games with random legal moves on both side by
+ * side, compares the whole state after every tick and reloads the model from the game when they disagree. Then
+ * measures rollouts from the same states with {@link Game#copy()} and with {@link ForwardModel#copyFrom}. The
+ * model's incremental Zobrist hash is checked against one computed from scratch along the way. Before that,
+ * {@link TranspositionTable} lookups and replacements are checked on keys that all fall into one bucket.
+ * <p>
+ * The model is run without random global reversals, so the engine's own reversals, which happen with a small fixed
+ * chance every tick, show up as expected mismatches in which every ghost has turned round. Any other mismatch is a
+ * difference between the model and the engine.
+ * <p>
+ * Arguments: [games] [seed]
+ */
+public class ForwardModelCheck {
+	private static final GHOST[] GHOSTS = GHOST.values();
+	private static final int ROLLOUT_TICKS = 20;
+	private static final int MISMATCHES_SHOWN = 10;
+
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		Random random = new Random(seed);
+		checkTranspositionTable();
+
+		long ticks = 0;
+		int mismatches = 0;
+		long gameNanos = 0;
+		long modelNanos = 0;
+		long rolloutTicks = 0;
+		EnumMap<GHOST, MOVE> ghostMoves = new EnumMap<>(GHOST.class);
+		ForwardModel scratch = new ForwardModel(seed);
+
+		for (int i = 0; i < games; i++) {
+			Game game = new Game(seed + i);
+			ForwardModel model = new ForwardModel(seed + i);
+			model.setReversalChance(0);
+			model.load(game);
+
+			while (!game.gameOver()) {
+				MOVE pacmanMove = randomMove(game, random, ghostMoves);
+				game.advanceGame(pacmanMove, new EnumMap<>(ghostMoves));
+				model.advance(pacmanMove, ghostMoves);
+				ticks++;
+
+				String difference = compare(game, model);
+				if (difference != null) {
+					if (mismatches++ < MISMATCHES_SHOWN) {
+						System.out.println("Game " + i + " tick " + game.getTotalTime() + ": " + difference);
+					}
+					model.load(game);
+				}
+
+				// Every so often, time rollouts from this state both ways
+				if (ticks % 50 == 0) {
+					long seedForRollout = random.nextLong();
+					long start = System.nanoTime();
+					rolloutTicks += rolloutWithGame(game, new Random(seedForRollout));
+					gameNanos += System.nanoTime() - start;
+					start = System.nanoTime();
+					rolloutWithModel(model, scratch, new Random(seedForRollout));
+					modelNanos += System.nanoTime() - start;
+				}
+			}
+		}
+
+		System.out.println(ticks + " ticks in " + games + " games, " + mismatches + " mismatches ("
+				+ String.format("%.3f", 100.0 * mismatches / Math.max(1, ticks)) + "%)");
+		double gameRate = rolloutTicks * 1e9 / Math.max(1, gameNanos);
+		double modelRate = rolloutTicks * 1e9 / Math.max(1, modelNanos);
+		System.out.println(String.format("Rollouts of %d ticks: Game %.0f ticks/s, ForwardModel %.0f ticks/s, %.1fx",
+				ROLLOUT_TICKS, gameRate, modelRate, modelRate / gameRate));
+	}
+
+	/**
+	 * Fills one bucket of a small table and checks which entries are found and which are replaced: a deeper entry of
+	 * the same search is kept over a shallower one for its key, a full bucket gives up the oldest entry first and,
+	 * among entries of the same age, the shallowest.
+	 */
+	private static void checkTranspositionTable() {
+		TranspositionTable table = new TranspositionTable(16);
+		StringBuilder failures = new StringBuilder();
+
+		// Keys whose high and low halves are equal all hash to the first slot
+		long[] keys = new long[TranspositionTable.BUCKET + 2];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = (long) (i + 1) << 32 | (i + 1);
+		}
+		checkEntry(failures, table, keys[0], false, 0, 0, 0);
+
+		table.newSearch();
+		table.store(keys[0], 10, 3, 1);
+		table.store(keys[1], 11, 1, 2);
+		table.store(keys[2], 12, 2, 3);
+		table.store(keys[3], 13, 4, 0);
+		checkEntry(failures, table, keys[0], true, 10, 3, 1);
+		checkEntry(failures, table, keys[1], true, 11, 1, 2);
+		checkEntry(failures, table, keys[3], true, 13, 4, 0);
+
+		// The same key from the same search: a shallower result does not replace a deeper one, a deeper one does
+		table.store(keys[0], 20, 2, 2);
+		checkEntry(failures, table, keys[0], true, 10, 3, 1);
+		table.store(keys[0], 30, 5, TranspositionTable.NO_MOVE);
+		checkEntry(failures, table, keys[0], true, 30, 5, TranspositionTable.NO_MOVE);
+
+		// A full bucket in a new search gives up the shallowest of the older entries, then the next shallowest
+		table.newSearch();
+		table.store(keys[4], 14, 1, 1);
+		checkEntry(failures, table, keys[1], false, 0, 0, 0);
+		checkEntry(failures, table, keys[4], true, 14, 1, 1);
+		table.store(keys[5], 15, 9, 2);
+		checkEntry(failures, table, keys[2], false, 0, 0, 0);
+		checkEntry(failures, table, keys[0], true, 30, 5, TranspositionTable.NO_MOVE);
+		checkEntry(failures, table, keys[3], true, 13, 4, 0);
+		checkEntry(failures, table, keys[5], true, 15, 9, 2);
+		if (table.isCurrent(table.find(keys[0])) || !table.isCurrent(table.find(keys[5]))) {
+			failures.append("entries of the last search not told from older ones; ");
+		}
+
+		// An older entry for the key is replaced even by a shallower result
+		table.store(keys[0], 40, 1, 3);
+		checkEntry(failures, table, keys[0], true, 40, 1, 3);
+
+		System.out.println("Transposition table: " + (failures.length() == 0 ? "ok" : failures.toString())
+				+ " (" + table.getHits() + " of " + table.getProbes() + " lookups hit)");
+	}
+
+	private static void checkEntry(StringBuilder failures, TranspositionTable table, long key, boolean stored,
+			float value, int depth, int move) {
+		int slot = table.find(key);
+		if ((slot != -1) != stored) {
+			failures.append("key ").append(Long.toHexString(key)).append(stored ? " missing" : " still stored").append("; ");
+		} else if (stored && (table.value(slot) != value || table.depth(slot) != depth || table.move(slot) != move)) {
+			failures.append("key ").append(Long.toHexString(key)).append(" holds ").append(table.value(slot)).append('/')
+					.append(table.depth(slot)).append('/').append(table.move(slot)).append("; ");
+		}
+	}
+
+	/**
+	 * A random move for Ms Pac-Man, who turns only at junctions, and a random legal move for every ghost outside the
+	 * lair, so the engine never has to pick one at random.
+	 */
+	private static MOVE randomMove(Game game, Random random, EnumMap<GHOST, MOVE> ghostMoves) {
+		ghostMoves.clear();
+		for (GHOST ghost : GHOSTS) {
+			if (game.getGhostLairTime(ghost) == 0) {
+				MOVE[] moves = game.getPossibleMoves(game.getGhostCurrentNodeIndex(ghost), game.getGhostLastMoveMade(ghost));
+				ghostMoves.put(ghost, moves[random.nextInt(moves.length)]);
+			}
+		}
+		MOVE[] moves = game.getPossibleMoves(game.getPacmanCurrentNodeIndex(), game.getPacmanLastMoveMade());
+		return moves.length == 0 ? MOVE.NEUTRAL : moves[random.nextInt(moves.length)];
+	}
+
+	private static int rolloutWithGame(Game game, Random random) {
+		EnumMap<GHOST, MOVE> ghostMoves = new EnumMap<>(GHOST.class);
+		Game copy = game.copy();
+		int tick = 0;
+		for (; tick < ROLLOUT_TICKS && !copy.gameOver(); tick++) {
+			MOVE pacmanMove = randomMove(copy, random, ghostMoves);
+			copy.advanceGame(pacmanMove, ghostMoves);
+		}
+		return tick;
+	}
+
+	private static void rolloutWithModel(ForwardModel model, ForwardModel copy, Random random) {
+		int[] moves = new int[4];
+		int[] ghostMoves = new int[GHOSTS.length];
+		copy.copyFrom(model);
+		for (int tick = 0; tick < ROLLOUT_TICKS && !copy.gameOver(); tick++) {
+			for (int g = 0; g < GHOSTS.length; g++) {
+				ghostMoves[g] = ForwardModel.NEUTRAL;
+				if (copy.getGhostLairTime(g) == 0) {
+					int count = copy.possibleMoves(copy.getGhostNode(g), copy.getGhostMove(g), moves);
+					ghostMoves[g] = moves[random.nextInt(count)];
+				}
+			}
+			int count = copy.possibleMoves(copy.getPacmanNode(), copy.getPacmanMove(), moves);
+			copy.advance(count == 0 ? ForwardModel.NEUTRAL : moves[random.nextInt(count)], ghostMoves);
+		}
+	}
+
+	private static String compare(Game game, ForwardModel model) {
+		StringBuilder difference = new StringBuilder();
+		check(difference, "maze", game.getMazeIndex(), model.getMazeIndex());
+		check(difference, "level", game.getCurrentLevel(), model.getCurrentLevel());
+		check(difference, "total time", game.getTotalTime(), model.getTotalTime());
+		check(difference, "level time", game.getCurrentLevelTime(), model.getCurrentLevelTime());
+		check(difference, "score", game.getScore(), model.getScore());
+		check(difference, "lives", game.getPacmanNumberOfLivesRemaining(), model.getLives());
+		check(difference, "game over", game.gameOver() ? 1 : 0, model.gameOver() ? 1 : 0);
+		check(difference, "Ms Pac-Man node", game.getPacmanCurrentNodeIndex(), model.getPacmanNode());
+		check(difference, "Ms Pac-Man move", game.getPacmanLastMoveMade().ordinal(), model.getPacmanMove());
+		for (GHOST ghost : GHOSTS) {
+			int g = ghost.ordinal();
+			check(difference, ghost + " node", game.getGhostCurrentNodeIndex(ghost), model.getGhostNode(g));
+			check(difference, ghost + " move", game.getGhostLastMoveMade(ghost).ordinal(), model.getGhostMove(g));
+			check(difference, ghost + " edible time", game.getGhostEdibleTime(ghost), model.getGhostEdibleTime(g));
+			check(difference, ghost + " lair time", game.getGhostLairTime(ghost), model.getGhostLairTime(g));
+		}
+		check(difference, "pills", game.getNumberOfActivePills(), model.getNumberOfActivePills());
+		check(difference, "power pills", game.getNumberOfActivePowerPills(), model.getNumberOfActivePowerPills());
+		if (model.hash() != model.computeHash()) {
+			difference.append("incremental hash ").append(model.hash()).append(" vs ").append(model.computeHash()).append("; ");
+		}
+		if (difference.length() == 0 && game.getMazeIndex() == model.getMazeIndex()) {
+			for (int i = 0; i < game.getNumberOfPills(); i++) {
+				check(difference, "pill " + i, game.isPillStillAvailable(i) ? 1 : 0, model.isPillAvailable(i) ? 1 : 0);
+			}
+			for (int i = 0; i < game.getNumberOfPowerPills(); i++) {
+				check(difference, "power pill " + i, game.isPowerPillStillAvailable(i) ? 1 : 0, model.isPowerPillAvailable(i) ? 1 : 0);
+			}
+		}
+		return difference.length() == 0 ? null : difference.toString();
+	}
+
+	private static void check(StringBuilder difference, String what, int expected, int actual) {
+		if (expected != actual) {
+			difference.append(what).append(' ').append(expected).append(" vs ").append(actual).append("; ");
+		}
+	}
+}
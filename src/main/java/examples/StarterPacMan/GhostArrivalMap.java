@@ -0,0 +1,195 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.Arrays;
+
+/**
+ * The earliest tick, counted from now, at which any dangerous ghost can reach each node of the maze. Computed once per
+ * tick by a breadth-first search from all non-edible ghosts at once that, like the ghosts themselves, never reverses;
+ * ghosts still in the lair start from the lair exit once their lair time is up. Deciding whether Ms Pac-Man can
+ * safely be somewhere is then an array lookup comparing her arrival time with the ghosts'.
+ */
+final class GhostArrivalMap {
+	static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+	private static final GHOST[] GHOSTS = GHOST.values();
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final int DIRECTIONS = 4;
+	// A search state is a node and the move a ghost arrived with (NEUTRAL included), that decides where it can go next
+	private static final int STATES_PER_NODE = DIRECTIONS + 1;
+
+	private int[] arrival = new int[0];
+	private boolean[] visited = new boolean[0];
+	private int[] queue = new int[0];
+	private int[] queueTime = new int[0];
+
+	private final int[] sourceNode = new int[GHOSTS.length];
+	private final MOVE[] sourceMove = new MOVE[GHOSTS.length];
+	private final int[] sourceTime = new int[GHOSTS.length];
+
+	// Per JunctionGraph edge: the earliest arrival along it, less the ticks Ms Pac-Man needs to get to each node
+	private int[] edgeArrival = new int[0];
+	private boolean[] edgeDone = new boolean[0];
+	private int[] chain = new int[0];
+
+	/**
+	 * Recomputes the map for the game's current tick, and the per-edge arrivals of graph if it is not null.
+	 */
+	void update(Game game, JunctionGraph graph) {
+		int nodes = game.getNumberOfNodes();
+		if (arrival.length != nodes) {
+			arrival = new int[nodes];
+			visited = new boolean[nodes * STATES_PER_NODE];
+			queue = new int[nodes * STATES_PER_NODE];
+			queueTime = new int[nodes * STATES_PER_NODE];
+		}
+		Arrays.fill(arrival, UNREACHABLE);
+		Arrays.fill(visited, false);
+
+		int sources = 0;
+		for (GHOST ghost : GHOSTS) {
+			int node = game.getGhostCurrentNodeIndex(ghost);
+			if (node == -1 || game.isGhostEdible(ghost)) {
+				continue;
+			}
+			int lairTime = game.getGhostLairTime(ghost);
+			if (lairTime > 0) {
+				sourceNode[sources] = game.getGhostInitialNodeIndex();
+				sourceMove[sources] = MOVE.NEUTRAL;
+				sourceTime[sources] = lairTime;
+			} else {
+				sourceNode[sources] = node;
+				sourceMove[sources] = game.getGhostLastMoveMade(ghost);
+				sourceTime[sources] = 0;
+			}
+			sources++;
+		}
+		search(game, sources);
+
+		if (graph != null) {
+			updateEdges(graph, nodes * DIRECTIONS);
+		}
+	}
+
+	int arrivalTime(int node) {
+		return arrival[node];
+	}
+
+	/**
+	 * Whether Ms Pac-Man can be at node after pacmanTime ticks without a ghost getting within eating distance first.
+	 */
+	boolean isSafe(int node, int pacmanTime) {
+		return arrival[node] - pacmanTime > Constants.EAT_DISTANCE;
+	}
+
+	/**
+	 * Like {@link #isSafe(int, int)} for the first nodes of a {@link JunctionGraph} edge that Ms Pac-Man enters after
+	 * pacmanTime ticks. Needs the graph to have been passed to {@link #update}.
+	 */
+	boolean isSafe(JunctionGraph graph, int key, int nodes, int pacmanTime) {
+		int earliest;
+		if (nodes == graph.length(key)) {
+			earliest = edgeArrival[key];
+		} else {
+			earliest = UNREACHABLE;
+			for (int offset = 0; offset < nodes; offset++) {
+				earliest = Math.min(earliest, arrival[graph.node(key, offset)] - offset);
+			}
+		}
+		return earliest - pacmanTime > Constants.EAT_DISTANCE;
+	}
+
+	private void search(Game game, int sources) {
+		sortSourcesByTime(sources);
+
+		// Ghosts leaving the lair join when the search reaches their start time, so the queue stays in time order
+		int head = 0;
+		int tail = 0;
+		int nextSource = 0;
+		while (head < tail || nextSource < sources) {
+			int now = head < tail ? queueTime[head] : sourceTime[nextSource];
+			for (; nextSource < sources && sourceTime[nextSource] <= now; nextSource++) {
+				tail = visit(sourceNode[nextSource], sourceMove[nextSource], sourceTime[nextSource], tail);
+			}
+			if (head == tail) {
+				continue;
+			}
+
+			int state = queue[head];
+			int time = queueTime[head++];
+			int node = state / STATES_PER_NODE;
+			for (MOVE move : game.getPossibleMoves(node, MOVES[state % STATES_PER_NODE])) {
+				tail = visit(game.getNeighbour(node, move), move, time + 1, tail);
+			}
+		}
+	}
+
+	private int visit(int node, MOVE move, int time, int tail) {
+		int state = node * STATES_PER_NODE + move.ordinal();
+		if (visited[state]) {
+			return tail;
+		}
+		visited[state] = true;
+		queue[tail] = state;
+		queueTime[tail] = time;
+		if (time < arrival[node]) {
+			arrival[node] = time;
+		}
+		return tail + 1;
+	}
+
+	private void sortSourcesByTime(int sources) {
+		for (int i = 1; i < sources; i++) {
+			for (int j = i; j > 0 && sourceTime[j] < sourceTime[j - 1]; j--) {
+				int node = sourceNode[j];
+				MOVE move = sourceMove[j];
+				int time = sourceTime[j];
+				sourceNode[j] = sourceNode[j - 1];
+				sourceMove[j] = sourceMove[j - 1];
+				sourceTime[j] = sourceTime[j - 1];
+				sourceNode[j - 1] = node;
+				sourceMove[j - 1] = move;
+				sourceTime[j - 1] = time;
+			}
+		}
+	}
+
+	/**
+	 * An edge is its first node followed by the edge entered at its second node, so every edge is done after that tail
+	 * and each straight run is only walked once.
+	 */
+	private void updateEdges(JunctionGraph graph, int edges) {
+		if (edgeArrival.length != edges) {
+			edgeArrival = new int[edges];
+			edgeDone = new boolean[edges];
+			chain = new int[edges];
+		}
+		Arrays.fill(edgeDone, false);
+
+		for (int key = 0; key < edges; key++) {
+			// Follow the tails until an edge that is done or has no tail, then fill them in backwards
+			int length = 0;
+			for (int edge = key; !edgeDone[edge]; ) {
+				chain[length++] = edge;
+				if (graph.length(edge) == 1) {
+					break;
+				}
+				edge = JunctionGraph.key(graph.node(edge, 1), JunctionGraph.direction(edge));
+			}
+			while (length > 0) {
+				int edge = chain[--length];
+				int earliest = arrival[JunctionGraph.startNode(edge)];
+				if (graph.length(edge) > 1) {
+					int tail = JunctionGraph.key(graph.node(edge, 1), JunctionGraph.direction(edge));
+					earliest = Math.min(earliest, edgeArrival[tail] - 1);
+				}
+				edgeArrival[edge] = earliest;
+				edgeDone[edge] = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+import pacman.game.internal.Maze;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths to a fixed goal that are repaired rather than recomputed as Ms Pac-Man moves and node costs change:
+ * D* Lite (Koenig and Likhachev). The search runs backwards from the goal, so its distances stay valid wherever Ms
+ * Pac-Man goes; each tick only the nodes whose cost changed, and those whose distance depends on them, are searched
+ * again. A new goal or a new maze starts over from scratch.
+ * <p>
+ * Stepping onto a node costs that node's cost, at least 1, so the shortest path distance is an admissible heuristic.
+ */
+final class IncrementalPlanner {
+	static final int INFINITY = Integer.MAX_VALUE / 4;
+
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final int DIRECTIONS = 4;
+
+	private Game game;
+	private Maze maze;
+	private int nodes;
+	private int[] neighbour = new int[0]; // node * 4 + move, -1 if there is none
+	private int[] cost = new int[0];
+	private int[] g = new int[0];
+	private int[] rhs = new int[0];
+	private final NodeHeap queue = new NodeHeap();
+
+	private int goal = -1;
+	private int start;
+	private int keyModifier;
+
+	private int expanded;
+	private int fullReplans;
+
+	/**
+	 * Brings the plan up to date and returns the next node from start towards goal, -1 if goal cannot be reached.
+	 *
+	 * @param nodeCost the cost of stepping onto each node this tick
+	 */
+	int plan(Game game, int start, int goal, int[] nodeCost) {
+		this.game = game;
+		expanded = 0;
+		if (game.getCurrentMaze() != maze || goal != this.goal) {
+			initialise(game, start, goal, nodeCost);
+		} else {
+			keyModifier += heuristic(this.start, start);
+			this.start = start;
+			for (int node = 0; node < nodes; node++) {
+				if (nodeCost[node] != cost[node]) {
+					cost[node] = nodeCost[node];
+					for (int direction = 0; direction < DIRECTIONS; direction++) {
+						int previous = neighbour[node * DIRECTIONS + direction];
+						if (previous != -1) {
+							updateNode(previous);
+						}
+					}
+				}
+			}
+		}
+		computeShortestPath();
+		return g[start] >= INFINITY ? -1 : bestNext(start);
+	}
+
+	/**
+	 * Writes the planned path, from the node after start to the goal, and returns its length.
+	 */
+	int path(int[] out) {
+		int length = 0;
+		for (int node = start; node != goal && g[node] < INFINITY && length < out.length; ) {
+			node = bestNext(node);
+			out[length++] = node;
+		}
+		return length;
+	}
+
+	/**
+	 * The cost of the planned path from start to the goal.
+	 */
+	int distance() {
+		return g[start];
+	}
+
+	/**
+	 * Nodes expanded by the last {@link #plan}.
+	 */
+	int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Plans started over from scratch so far.
+	 */
+	int getFullReplans() {
+		return fullReplans;
+	}
+
+	private void initialise(Game game, int start, int goal, int[] nodeCost) {
+		Maze currentMaze = game.getCurrentMaze();
+		if (currentMaze != maze) {
+			maze = currentMaze;
+			nodes = game.getNumberOfNodes();
+			neighbour = new int[nodes * DIRECTIONS];
+			for (int node = 0; node < nodes; node++) {
+				for (int direction = 0; direction < DIRECTIONS; direction++) {
+					neighbour[node * DIRECTIONS + direction] = game.getNeighbour(node, MOVES[direction]);
+				}
+			}
+			cost = new int[nodes];
+			g = new int[nodes];
+			rhs = new int[nodes];
+		}
+		System.arraycopy(nodeCost, 0, cost, 0, nodes);
+		Arrays.fill(g, INFINITY);
+		Arrays.fill(rhs, INFINITY);
+		queue.reset(nodes);
+		this.goal = goal;
+		this.start = start;
+		keyModifier = 0;
+		fullReplans++;
+
+		rhs[goal] = 0;
+		queue.push(goal, key(goal));
+	}
+
+	private void computeShortestPath() {
+		while (!queue.isEmpty() && (queue.topKey() < key(start) || rhs[start] != g[start])) {
+			int node = queue.top();
+			long oldKey = queue.topKey();
+			long newKey = key(node);
+			expanded++;
+			if (oldKey < newKey) {
+				queue.push(node, newKey);
+			} else if (g[node] > rhs[node]) {
+				g[node] = rhs[node];
+				queue.remove(node);
+				updateNeighbours(node);
+			} else {
+				g[node] = INFINITY;
+				updateNode(node);
+				updateNeighbours(node);
+			}
+		}
+	}
+
+	private void updateNeighbours(int node) {
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			int previous = neighbour[node * DIRECTIONS + direction];
+			if (previous != -1) {
+				updateNode(previous);
+			}
+		}
+	}
+
+	private void updateNode(int node) {
+		if (node != goal) {
+			int best = INFINITY;
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				int next = neighbour[node * DIRECTIONS + direction];
+				if (next != -1 && g[next] < INFINITY) {
+					best = Math.min(best, cost[next] + g[next]);
+				}
+			}
+			rhs[node] = best;
+		}
+		if (g[node] != rhs[node]) {
+			queue.push(node, key(node));
+		} else {
+			queue.remove(node);
+		}
+	}
+
+	private int bestNext(int node) {
+		int best = -1;
+		int bestCost = Integer.MAX_VALUE;
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			int next = neighbour[node * DIRECTIONS + direction];
+			if (next != -1 && g[next] < INFINITY && cost[next] + g[next] < bestCost) {
+				bestCost = cost[next] + g[next];
+				best = next;
+			}
+		}
+		return best;
+	}
+
+	// Queue order: the estimated path cost through the node, then its distance to the goal
+	private long key(int node) {
+		int distance = Math.min(g[node], rhs[node]);
+		return (long) (distance + heuristic(start, node) + keyModifier) << 32 | distance;
+	}
+
+	private int heuristic(int from, int to) {
+		return game.getShortestPathDistance(from, to);
+	}
+}
@@ -0,0 +1,216 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+import pacman.game.internal.Maze;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The corridors of a maze compiled once into flat arrays, so the tree search can expand a whole corridor at a time
+ * instead of walking it node by node with {@link Game#getNeighbour} and {@link Game#getPossibleMoves}.
+ * <p>
+ * An edge is identified by the node it is entered at and the move used to enter it ({@link #key}). It runs straight
+ * on until the first node where Ms Pac-Man, not reversing, could either turn or has to: a junction or a corner. That
+ * is exactly where the tree search starts new segments. Every edge carries its nodes in order, its length and the
+ * offsets of its pills and power pills, and knows the edges that continue it.
+ */
+final class JunctionGraph {
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final int DIRECTIONS = 4;
+	private static final Map<Maze, JunctionGraph> GRAPHS = new ConcurrentHashMap<>();
+
+	final Maze maze;
+
+	// Per edge: the last node and the start of its nodes, pills, power pills and children in the arrays below
+	private final int[] endNode;
+	private final int[] nodeStart;
+	private final int[] pillStart;
+	private final int[] powerPillStart;
+	private final int[] childStart;
+
+	private final int[] nodes;
+	private final int[] pillOffset;
+	private final int[] pillIndex;
+	private final int[] powerPillOffset;
+	private final int[] powerPillIndex;
+	private final int[] children;
+
+	/**
+	 * Returns the graph of the game's current maze, compiling it on first use.
+	 */
+	static JunctionGraph forMaze(Game game) {
+		Maze maze = game.getCurrentMaze();
+		JunctionGraph graph = GRAPHS.get(maze);
+		if (graph == null) {
+			graph = new JunctionGraph(game, maze);
+			JunctionGraph existing = GRAPHS.putIfAbsent(maze, graph);
+			if (existing != null) {
+				graph = existing;
+			}
+		}
+		return graph;
+	}
+
+	private JunctionGraph(Game game, Maze maze) {
+		this.maze = maze;
+		int numberOfNodes = game.getNumberOfNodes();
+		int edges = numberOfNodes * DIRECTIONS;
+
+		endNode = new int[edges];
+		nodeStart = new int[edges + 1];
+		pillStart = new int[edges + 1];
+		powerPillStart = new int[edges + 1];
+		childStart = new int[edges + 1];
+
+		IntList nodeList = new IntList();
+		IntList pillOffsetList = new IntList();
+		IntList pillIndexList = new IntList();
+		IntList powerPillOffsetList = new IntList();
+		IntList powerPillIndexList = new IntList();
+		IntList childList = new IntList();
+
+		for (int key = 0; key < edges; key++) {
+			MOVE direction = MOVES[key % DIRECTIONS];
+			nodeStart[key] = nodeList.size;
+			pillStart[key] = pillOffsetList.size;
+			powerPillStart[key] = powerPillOffsetList.size;
+			childStart[key] = childList.size;
+
+			// Walk straight on until Ms Pac-Man could or must turn, bounded in case a maze loops without a turn
+			int node = key / DIRECTIONS;
+			MOVE[] possibleMoves;
+			for (int offset = 0; ; offset++) {
+				nodeList.add(node);
+				int pill = game.getPillIndex(node);
+				int powerPill = game.getPowerPillIndex(node);
+				if (pill != -1) {
+					pillOffsetList.add(offset);
+					pillIndexList.add(pill);
+				} else if (powerPill != -1) {
+					powerPillOffsetList.add(offset);
+					powerPillIndexList.add(powerPill);
+				}
+
+				possibleMoves = game.getPossibleMoves(node, direction);
+				if (possibleMoves.length != 1 || possibleMoves[0] != direction || offset == numberOfNodes) {
+					break;
+				}
+				node = game.getNeighbour(node, direction);
+			}
+
+			endNode[key] = node;
+			for (MOVE move : possibleMoves) {
+				childList.add(key(game.getNeighbour(node, move), move.ordinal()));
+			}
+		}
+
+		nodeStart[edges] = nodeList.size;
+		pillStart[edges] = pillOffsetList.size;
+		powerPillStart[edges] = powerPillOffsetList.size;
+		childStart[edges] = childList.size;
+
+		nodes = nodeList.toArray();
+		pillOffset = pillOffsetList.toArray();
+		pillIndex = pillIndexList.toArray();
+		powerPillOffset = powerPillOffsetList.toArray();
+		powerPillIndex = powerPillIndexList.toArray();
+		children = childList.toArray();
+	}
+
+	/**
+	 * The edge entered at node with the move of the given ordinal.
+	 */
+	static int key(int node, int direction) {
+		return node * DIRECTIONS + direction;
+	}
+
+	static int startNode(int key) {
+		return key / DIRECTIONS;
+	}
+
+	static int direction(int key) {
+		return key % DIRECTIONS;
+	}
+
+	int length(int key) {
+		return nodeStart[key + 1] - nodeStart[key];
+	}
+
+	int endNode(int key) {
+		return endNode[key];
+	}
+
+	/**
+	 * The node at the given offset from the start of the edge.
+	 */
+	int node(int key, int offset) {
+		return nodes[nodeStart[key] + offset];
+	}
+
+	/**
+	 * Offset of node on the edge, or -1 if the edge does not pass through it.
+	 */
+	int offsetOf(int key, int node) {
+		if (node < 0) {
+			return -1;
+		}
+		// Edges that run into the same end node in the same direction share their tail, so a node is on an edge
+		// exactly when the edge entered at it ends at the same node and is no longer
+		int nodeKey = key(node, direction(key));
+		if (endNode[nodeKey] != endNode[key]) {
+			return -1;
+		}
+		int offset = length(key) - length(nodeKey);
+		return offset >= 0 ? offset : -1;
+	}
+
+	/**
+	 * Number of pills and power pills still available on the first limit nodes of the edge, packed as
+	 * pills | powerPills << 16.
+	 */
+	int countPills(Game game, int key, int limit) {
+		int pills = 0;
+		for (int i = pillStart[key]; i < pillStart[key + 1] && pillOffset[i] < limit; i++) {
+			if (game.isPillStillAvailable(pillIndex[i])) {
+				pills++;
+			}
+		}
+		int powerPills = 0;
+		for (int i = powerPillStart[key]; i < powerPillStart[key + 1] && powerPillOffset[i] < limit; i++) {
+			if (game.isPowerPillStillAvailable(powerPillIndex[i])) {
+				powerPills++;
+			}
+		}
+		return pills | powerPills << 16;
+	}
+
+	int childCount(int key) {
+		return childStart[key + 1] - childStart[key];
+	}
+
+	/**
+	 * The i-th edge that continues this one, in the order of {@link Game#getPossibleMoves(int, MOVE)}.
+	 */
+	int child(int key, int i) {
+		return children[childStart[key] + i];
+	}
+
+	private static final class IntList {
+		int[] values = new int[1024];
+		int size;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package examples.StarterPacMan;
+
+import pacman.controllers.PacmanController;
+import pacman.game.Constants.DM;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+/*
+ * Depth-limited lookahead on ForwardModel states: tries every sequence of macro-actions, a move followed along its
+ * corridor up to the next junction, as deep as the time allows, and takes the first move of the sequence that scores
+ * most without Ms Pac-Man being eaten. Ghosts that are not edible take the shortest way to Ms Pac-Man at junctions,
+ * edible ones the way away from her, and global reversals are left out, so the lookahead is deterministic. The model
+ * needs the whole state, so in a partially observable game Ms Pac-Man just keeps her last move.
+ *
+ * Different orders of macro-actions often end in the same state, for example clearing two corridors one way round
+ * or the other. Every state searched is stored in a TranspositionTable under ForwardModel.hash() with its value,
+ * how deep it was searched and its best move. A state stored earlier in the same move, searched at least as deep, is
+ * not searched again; otherwise, and for states stored in earlier moves, its stored best move is tried first. The
+ * hash leaves out the edible and lair timers and the ghost eating multiplier, so two states of the same move that
+ * only differ in those still share an entry; entries of earlier moves, where the timers are further apart, never
+ * cut the search short.
+ */
+public class LookaheadPacMan extends PacmanController implements ReadOnlyController {
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final GHOST[] GHOSTS = GHOST.values();
+	private static final int MAX_DEPTH = 10; // Macro-actions searched ahead at most
+
+	int depthWithoutDeadline = 4; // Macro-actions searched ahead when there is no timeDue
+	int maxMacroTicks = 40; // Longest corridor a macro-action follows
+	int deathPenalty = 10000; // Value of being eaten, below any score the lookahead can gain
+	boolean verbose = false; // Print the depth reached and the table hits of every move
+
+	private final long safetyMargin;
+	private final TranspositionTable table;
+
+	// One model per ply so searching allocates nothing
+	private final ForwardModel[] models;
+	private final int[][] moves;
+	private final int[] corridor = new int[4];
+	private final int[] ghostMoves = new int[GHOSTS.length];
+
+	private Game game;
+	private long deadline;
+	private boolean timedOut;
+	private int rootMove; // Best move at the root in the last depth searched
+	private int lastDepth;
+
+	public LookaheadPacMan() {
+		this(5, 1 << 18);
+	}
+
+	/**
+	 * @param safetyMargin  milliseconds before timeDue at which to stop searching
+	 * @param tableCapacity entries of the transposition table
+	 */
+	public LookaheadPacMan(long safetyMargin, int tableCapacity) {
+		this.safetyMargin = safetyMargin;
+		this.table = new TranspositionTable(tableCapacity);
+		models = new ForwardModel[MAX_DEPTH + 1];
+		moves = new int[MAX_DEPTH][4];
+		for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+			models[ply] = new ForwardModel(ply);
+			models[ply].setReversalChance(0);
+		}
+	}
+
+	@Override
+	public MOVE getMove(Game game, long timeDue) {
+		this.game = game;
+		deadline = timeDue > 0 ? timeDue - safetyMargin : Long.MAX_VALUE;
+		timedOut = false;
+		lastDepth = 0;
+		try {
+			models[0].load(game);
+		} catch (IllegalArgumentException e) {
+			// Partially observable: the model cannot be loaded, keep going the same way
+			return game.getPacmanLastMoveMade();
+		}
+		table.newSearch();
+
+		// Iterative deepening: each depth starts from the best moves the table kept from the one before
+		int best = TranspositionTable.NO_MOVE;
+		rootMove = TranspositionTable.NO_MOVE;
+		int depth = 0;
+		int depthLimit = timeDue > 0 ? MAX_DEPTH : Math.min(MAX_DEPTH, depthWithoutDeadline);
+		while (depth < depthLimit) {
+			search(0, depth + 1);
+			if (timedOut) {
+				break;
+			}
+			depth++;
+			best = rootMove;
+		}
+		lastDepth = depth;
+		if (verbose) {
+			System.out.println("Lookahead: depth " + depth + ", " + table.getHits() + " of " + table.getProbes()
+					+ " table probes hit");
+		}
+		return best == TranspositionTable.NO_MOVE ? game.getPacmanLastMoveMade() : MOVES[best];
+	}
+
+	/**
+	 * Macro-actions searched ahead in the last move.
+	 */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	/**
+	 * The share of table lookups so far that found their state.
+	 */
+	public double getTableHitRate() {
+		return table.getProbes() == 0 ? 0 : (double) table.getHits() / table.getProbes();
+	}
+
+	/**
+	 * The most score the model at ply can still gain in depth macro-actions, or minus deathPenalty if every way gets
+	 * Ms Pac-Man eaten. At the root Ms Pac-Man may also turn back; the root is not stored, since its moves differ from
+	 * those of the same state deeper down, and its best move is left in rootMove.
+	 */
+	private float search(int ply, int depth) {
+		ForwardModel model = models[ply];
+		if (depth == 0 || model.gameOver() || model.getMazeIndex() != game.getMazeIndex()) {
+			return 0;
+		}
+		if (System.currentTimeMillis() >= deadline) {
+			timedOut = true;
+			return 0;
+		}
+
+		long key = model.hash();
+		int hint = rootMove;
+		if (ply > 0) {
+			int slot = table.find(key);
+			hint = TranspositionTable.NO_MOVE;
+			if (slot != -1) {
+				if (table.isCurrent(slot) && table.depth(slot) >= depth) {
+					return table.value(slot);
+				}
+				hint = table.move(slot);
+			}
+		}
+
+		int[] options = moves[ply];
+		int count = model.possibleMoves(model.getPacmanNode(), ply == 0 ? ForwardModel.NEUTRAL : model.getPacmanMove(), options);
+		for (int i = 1; i < count; i++) {
+			if (options[i] == hint) {
+				options[i] = options[0];
+				options[0] = hint;
+			}
+		}
+
+		float best = -deathPenalty;
+		int bestMove = count > 0 ? options[0] : TranspositionTable.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			ForwardModel child = models[ply + 1];
+			child.copyFrom(model);
+			int score = child.getScore();
+			float value;
+			if (!playMacroAction(child, options[i])) {
+				value = -deathPenalty;
+			} else {
+				value = child.getScore() - score + search(ply + 1, depth - 1);
+			}
+			if (timedOut) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestMove = options[i];
+			}
+		}
+
+		if (ply == 0) {
+			rootMove = bestMove;
+		} else {
+			table.store(key, best, depth, bestMove);
+		}
+		return best;
+	}
+
+	/**
+	 * Plays the move and follows the corridor until Ms Pac-Man reaches a junction. Returns false if she was eaten.
+	 */
+	private boolean playMacroAction(ForwardModel model, int firstMove) {
+		int level = model.getCurrentLevel();
+		int next = firstMove;
+		for (int tick = 0; tick < maxMacroTicks; tick++) {
+			model.advance(next, moveGhosts(model));
+			if (model.wasPacManEaten()) {
+				return false;
+			}
+			if (model.gameOver() || model.getCurrentLevel() != level) {
+				return true;
+			}
+			if (model.possibleMoves(model.getPacmanNode(), model.getPacmanMove(), corridor) != 1) {
+				return true;
+			}
+			next = corridor[0];
+		}
+		return true;
+	}
+
+	/**
+	 * Moves for the ghosts at junctions: not edible ones towards Ms Pac-Man, edible ones away from her. Distances
+	 * come from the live game, which is on the same maze as long as the lookahead stays in the level.
+	 */
+	private int[] moveGhosts(ForwardModel model) {
+		int pacmanNode = model.getPacmanNode();
+		for (int g = 0; g < GHOSTS.length; g++) {
+			ghostMoves[g] = ForwardModel.NEUTRAL;
+			int ghostNode = model.getGhostNode(g);
+			MOVE lastMove = MOVES[model.getGhostMove(g)];
+			if (model.getGhostLairTime(g) > 0 || (lastMove != MOVE.NEUTRAL && !game.isJunction(ghostNode))) {
+				continue;
+			}
+			MOVE move = model.getGhostEdibleTime(g) > 0
+					? game.getNextMoveAwayFromTarget(ghostNode, pacmanNode, lastMove, DM.PATH)
+					: game.getNextMoveTowardsTarget(ghostNode, pacmanNode, lastMove, DM.PATH);
+			ghostMoves[g] = move.ordinal();
+		}
+		return ghostMoves;
+	}
+}
@@ -0,0 +1,263 @@
+package examples.StarterPacMan;
+
+import pacman.controllers.PacmanController;
+import pacman.game.Constants.DM;
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Random;
+
+/*
+ * Monte Carlo tree search: plays out as many simulated futures of the game as fit before timeDue and takes the move
+ * whose futures went best. A tree node is a macro-action, a move followed along its corridor up to the next junction,
+ * which keeps the tree shallow; below the tree, random junction moves are played for rolloutTicks against ghosts that
+ * mostly chase Ms Pac-Man.
+ *
+ * The tree lives in flat arrays reused every tick. Game cannot copy a state into an existing instance, so instead of
+ * pooling Games every rollout makes exactly one copy of the current game and replays the tree's macro-actions on it.
+ */
+public class MCTSPacMan extends PacmanController implements ReadOnlyController {
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final GHOST[] GHOSTS = GHOST.values();
+
+	double exploration = 0.7;
+	int rolloutTicks = 60; // Ticks played out below the tree
+	int maxMacroTicks = 50; // Longest corridor a macro-action follows
+	double ghostAggression = 0.8; // Chance that a simulated ghost chases Ms Pac-Man instead of moving randomly
+	double rewardScale = 1000; // Score gain that counts as the best possible rollout
+	int rolloutsWithoutDeadline = 300; // Rollouts per move when there is no timeDue
+	boolean verbose = false; // Print the rollouts of every move
+
+	private final long safetyMargin;
+	private final Random random;
+	private final EnumMap<GHOST, MOVE> ghostMoves = new EnumMap<>(GHOST.class);
+
+	// Tree node i was reached with move[i] from parent[i], its children are stored one after the other
+	private int size;
+	private int[] parent = new int[1024];
+	private int[] move = new int[1024];
+	private int[] firstChild = new int[1024];
+	private int[] childCount = new int[1024];
+	private int[] visits = new int[1024];
+	private double[] reward = new double[1024];
+
+	// Score of the real game at the root
+	private int rootScore;
+
+	// Throughput
+	private long rollouts;
+	private long searchNanos;
+	private int lastRollouts;
+
+	public MCTSPacMan() {
+		this(5, new Random().nextLong());
+	}
+
+	/**
+	 * @param safetyMargin milliseconds before timeDue at which to stop searching
+	 * @param seed         seed of the random moves in the simulations
+	 */
+	public MCTSPacMan(long safetyMargin, long seed) {
+		this.safetyMargin = safetyMargin;
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public MOVE getMove(Game game, long timeDue) {
+		long start = System.nanoTime();
+		rootScore = game.getScore();
+
+		size = 0;
+		newNode(-1, MOVE.NEUTRAL);
+		expand(0, game.getPossibleMoves(game.getPacmanCurrentNodeIndex()));
+		if (childCount[0] == 0) {
+			return MOVE.NEUTRAL;
+		}
+
+		int count = 0;
+		if (childCount[0] > 1) {
+			while (timeDue > 0 ? System.currentTimeMillis() < timeDue - safetyMargin : count < rolloutsWithoutDeadline) {
+				rollout(game);
+				count++;
+			}
+		}
+
+		long elapsed = System.nanoTime() - start;
+		lastRollouts = count;
+		rollouts += count;
+		searchNanos += elapsed;
+		if (verbose) {
+			System.out.println("MCTS: " + count + " rollouts, " + (int) (count * 1e9 / Math.max(1, elapsed)) + " rollouts/s");
+		}
+
+		// The most visited move, it is the one the search trusts most
+		int best = firstChild[0];
+		for (int child = firstChild[0] + 1; child < firstChild[0] + childCount[0]; child++) {
+			if (visits[child] > visits[best]) {
+				best = child;
+			}
+		}
+		return MOVES[move[best]];
+	}
+
+	/**
+	 * Rollouts of the last move.
+	 */
+	public int getLastRollouts() {
+		return lastRollouts;
+	}
+
+	/**
+	 * Rollouts per second over all moves so far.
+	 */
+	public double getRolloutsPerSecond() {
+		return searchNanos == 0 ? 0 : rollouts * 1e9 / searchNanos;
+	}
+
+	/**
+	 * One simulation: walk down the tree by UCB1, add the children of the leaf it ends at, play on randomly and add
+	 * the outcome to every node on the way.
+	 */
+	private void rollout(Game game) {
+		Game simulation = game.copy();
+		int node = 0;
+		boolean alive = true;
+
+		while (alive && childCount[node] > 0) {
+			node = select(node);
+			alive = playMacroAction(simulation, MOVES[move[node]]);
+			if (visits[node] == 0) {
+				break;
+			}
+		}
+
+		if (alive && visits[node] > 0 && childCount[node] == 0 && !simulation.gameOver()) {
+			int pacmanNode = simulation.getPacmanCurrentNodeIndex();
+			expand(node, simulation.getPossibleMoves(pacmanNode, simulation.getPacmanLastMoveMade()));
+			if (childCount[node] > 0) {
+				node = firstChild[node];
+				alive = playMacroAction(simulation, MOVES[move[node]]);
+			}
+		}
+
+		if (alive) {
+			alive = playOut(simulation);
+		}
+
+		double value = alive ? 0.5 + 0.5 * Math.min(1, (simulation.getScore() - rootScore) / rewardScale) : 0;
+		for (; node != -1; node = parent[node]) {
+			visits[node]++;
+			reward[node] += value;
+		}
+	}
+
+	private int select(int node) {
+		double logVisits = Math.log(Math.max(1, visits[node]));
+		int best = -1;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+			if (visits[child] == 0) {
+				return child;
+			}
+			double value = reward[child] / visits[child] + exploration * Math.sqrt(logVisits / visits[child]);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Plays the move and follows the corridor until Ms Pac-Man reaches a junction. Returns false if she was eaten.
+	 */
+	private boolean playMacroAction(Game simulation, MOVE firstMove) {
+		int level = simulation.getCurrentLevel();
+		MOVE next = firstMove;
+		for (int tick = 0; tick < maxMacroTicks; tick++) {
+			simulation.advanceGame(next, moveGhosts(simulation));
+			if (simulation.wasPacManEaten()) {
+				return false;
+			}
+			if (simulation.gameOver() || simulation.getCurrentLevel() != level) {
+				return true;
+			}
+
+			MOVE[] possibleMoves = simulation.getPossibleMoves(simulation.getPacmanCurrentNodeIndex(), simulation.getPacmanLastMoveMade());
+			if (possibleMoves.length != 1) {
+				return true;
+			}
+			next = possibleMoves[0];
+		}
+		return true;
+	}
+
+	/**
+	 * Random junction moves, without reversing, for rolloutTicks. Returns false if Ms Pac-Man was eaten.
+	 */
+	private boolean playOut(Game simulation) {
+		int level = simulation.getCurrentLevel();
+		for (int tick = 0; tick < rolloutTicks && !simulation.gameOver() && simulation.getCurrentLevel() == level; tick++) {
+			MOVE[] possibleMoves = simulation.getPossibleMoves(simulation.getPacmanCurrentNodeIndex(), simulation.getPacmanLastMoveMade());
+			MOVE next = possibleMoves.length == 0 ? MOVE.NEUTRAL : possibleMoves[random.nextInt(possibleMoves.length)];
+			simulation.advanceGame(next, moveGhosts(simulation));
+			if (simulation.wasPacManEaten()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Ghosts at a junction mostly take the shortest way to Ms Pac-Man, edible ones and the rest move randomly.
+	 */
+	private EnumMap<GHOST, MOVE> moveGhosts(Game simulation) {
+		int pacmanNode = simulation.getPacmanCurrentNodeIndex();
+		for (GHOST ghost : GHOSTS) {
+			if (!simulation.doesGhostRequireAction(ghost)) {
+				ghostMoves.remove(ghost);
+				continue;
+			}
+			int ghostNode = simulation.getGhostCurrentNodeIndex(ghost);
+			MOVE lastMove = simulation.getGhostLastMoveMade(ghost);
+			if (!simulation.isGhostEdible(ghost) && random.nextDouble() < ghostAggression) {
+				ghostMoves.put(ghost, simulation.getNextMoveTowardsTarget(ghostNode, pacmanNode, lastMove, DM.PATH));
+			} else {
+				MOVE[] possibleMoves = simulation.getPossibleMoves(ghostNode, lastMove);
+				ghostMoves.put(ghost, possibleMoves.length == 0 ? MOVE.NEUTRAL : possibleMoves[random.nextInt(possibleMoves.length)]);
+			}
+		}
+		return ghostMoves;
+	}
+
+	private void expand(int node, MOVE[] moves) {
+		firstChild[node] = size;
+		childCount[node] = moves.length;
+		for (MOVE childMove : moves) {
+			newNode(node, childMove);
+		}
+	}
+
+	private int newNode(int parentNode, MOVE nodeMove) {
+		if (size == parent.length) {
+			int capacity = size * 2;
+			parent = Arrays.copyOf(parent, capacity);
+			move = Arrays.copyOf(move, capacity);
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			childCount = Arrays.copyOf(childCount, capacity);
+			visits = Arrays.copyOf(visits, capacity);
+			reward = Arrays.copyOf(reward, capacity);
+		}
+		int node = size++;
+		parent[node] = parentNode;
+		move[node] = nodeMove.ordinal();
+		firstChild[node] = -1;
+		childCount[node] = 0;
+		visits[node] = 0;
+		reward[node] = 0;
+		return node;
+	}
+}
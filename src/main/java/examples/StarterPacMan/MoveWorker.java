@@ -0,0 +1,63 @@
+package examples.StarterPacMan;
+
+import pacman.controllers.Controller;
+import pacman.game.Game;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the getMove calls of one controller on its own daemon thread. Every request counts down the given latch as soon
+ * as the move is in, so the executor can wait on the latch instead of polling {@link Controller#hasComputed()}.
+ * <p>
+ * A controller that is still busy with an earlier request does not get a new one: the latch is released straight away
+ * and {@link #getMove()} keeps returning the last finished move until the controller catches up, just like the
+ * threaded {@link Controller} does.
+ */
+final class MoveWorker<T> {
+    private final Controller<T> controller;
+    private final ExecutorService thread;
+    private volatile boolean busy;
+    private volatile T lastMove;
+
+    MoveWorker(Controller<T> controller, T initialMove) {
+        this.controller = controller;
+        this.lastMove = initialMove;
+        this.thread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread t = new Thread(runnable, "MoveWorker-" + controller.getClass().getSimpleName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @return false if the controller is still busy with an earlier request and will not compute this one
+     */
+    boolean request(Game game, long timeDue, CountDownLatch latch) {
+        if (busy) {
+            latch.countDown();
+            return false;
+        }
+        busy = true;
+        thread.execute(() -> {
+            try {
+                lastMove = controller.getMove(game, timeDue);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                busy = false;
+                latch.countDown();
+            }
+        });
+        return true;
+    }
+
+    T getMove() {
+        return lastMove;
+    }
+
+    void terminate() {
+        thread.shutdownNow();
+    }
+}
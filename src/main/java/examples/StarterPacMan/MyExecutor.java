@@ -14,9 +14,24 @@ import pacman.game.internal.POType;
 import pacman.game.util.Stats;
 
 import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static pacman.game.Constants.*;
 
@@ -28,6 +43,14 @@ import static pacman.game.Constants.*;
  */
 @SuppressWarnings("unused")
 public class MyExecutor {
+    private static final int MIN_PAIRED_TRIALS = 30;
+    // Chance of a wrong verdict over all looks of the paired benchmark, split evenly between them
+    private static final double PAIRED_ALPHA = 0.01;
+    private static final int REPLAY_KEYFRAME_INTERVAL = 100;
+    private static final double MAX_EXPLORATION_RATE = 1.0;
+    private static final double MIN_EXPLORATION_RATE = 0.01;
+    private static final double EXPLORATION_DECAY_RATE = 0.00001;
+
     private final boolean pacmanPO;
     private final boolean ghostPO;
     private final boolean ghostsMessage;
@@ -39,7 +62,14 @@ public class MyExecutor {
     private final int timeLimit;
     private final POType poType;
     private final int sightLimit;
-    private final Random rnd = new Random();
+    private final int workers;
+    private final boolean profiling;
+    private final boolean enforceDeadlines;
+    private final String checkpointFile;
+    private final int checkpointInterval;
+    private final int shardTimeout;
+    private final Random rnd;
+    private volatile TickProfile lastProfile;
     private final Function<Game, String> peek;
     private final Logger logger = LoggerFactory.getLogger(MyExecutor.class);
 
@@ -56,6 +86,13 @@ public class MyExecutor {
         private POType poType = POType.LOS;
         private int sightLimit = 50;
         private Function<Game, String> peek = null;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private Long seed = null;
+        private boolean profiling = false;
+        private boolean enforceDeadlines = false;
+        private String checkpointFile = null;
+        private int checkpointInterval = 0;
+        private int shardTimeout = 0;
 
         public Builder setPacmanPO(boolean po) {
             this.pacmanPO = po;
@@ -123,8 +160,50 @@ public class MyExecutor {
             return this;
         }
 
+        public Builder setWorkers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setProfiling(boolean profiling) {
+            this.profiling = profiling;
+            return this;
+        }
+
+        public Builder setEnforceDeadlines(boolean enforceDeadlines) {
+            this.enforceDeadlines = enforceDeadlines;
+            return this;
+        }
+
+        /**
+         * Makes Q-learning training save a {@link QTableCheckpoint} per maze in the background every given number
+         * of episodes, and once more at the end.
+         */
+        public Builder setCheckpoint(String fileName, int episodes) {
+            if (episodes < 1) {
+                throw new IllegalArgumentException("episodes must be at least 1");
+            }
+            this.checkpointFile = fileName;
+            this.checkpointInterval = episodes;
+            return this;
+        }
+
+        /**
+         * Minutes a worker JVM of {@link MyExecutor#runExperimentSharded} may run before it is killed. By default it gets
+         * twice as long as its games take when every tick uses the full time limit, plus a minute to start.
+         */
+        public Builder setShardTimeout(int minutes) {
+            this.shardTimeout = minutes;
+            return this;
+        }
+
         public MyExecutor build() {
-            return new MyExecutor(pacmanPO, ghostPO, ghostsMessage, messenger, scaleFactor, setDaemon, visuals, tickLimit, timeLimit, poType, sightLimit, peek);
+            return new MyExecutor(pacmanPO, ghostPO, ghostsMessage, messenger, scaleFactor, setDaemon, visuals, tickLimit, timeLimit, poType, sightLimit, peek, workers, seed, profiling, enforceDeadlines, checkpointFile, checkpointInterval, shardTimeout);
         }
     }
 
@@ -140,7 +219,14 @@ public class MyExecutor {
             int timeLimit,
             POType poType,
             int sightLimit,
-            Function<Game, String> peek
+            Function<Game, String> peek,
+            int workers,
+            Long seed,
+            boolean profiling,
+            boolean enforceDeadlines,
+            String checkpointFile,
+            int checkpointInterval,
+            int shardTimeout
             ) {
         this.pacmanPO = pacmanPO;
         this.ghostPO = ghostPO;
@@ -154,6 +240,13 @@ public class MyExecutor {
         this.poType = poType;
         this.sightLimit = sightLimit;
         this.peek = peek;
+        this.workers = workers;
+        this.rnd = (seed == null) ? new Random() : new Random(seed);
+        this.profiling = profiling;
+        this.enforceDeadlines = enforceDeadlines;
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+        this.shardTimeout = shardTimeout;
     }
 
     private static void writeStat(FileWriter writer, Stats stat, int i) throws IOException {
@@ -171,6 +264,55 @@ public class MyExecutor {
                 stat.getMsTaken()));
     }
 
+    /**
+     * Writes the given experiment stats to baseName-stats.csv and, if profiling is enabled, the tick latency breakdown
+     * of the last experiment to baseName-latency.csv. Both are also written together to baseName.json.
+     *
+     * @param baseName The file name without extension
+     * @param stats    The stats returned by the experiment
+     */
+    public void exportExperiment(String baseName, Stats[] stats) {
+        TickProfile profile = lastProfile;
+        StringBuilder json = new StringBuilder("{\"stats\": [");
+
+        try (FileWriter writer = new FileWriter(baseName + "-stats.csv")) {
+            for (int i = 0; i < stats.length; i++) {
+                writeStat(writer, stats[i], i);
+                json.append(String.format(Locale.ROOT,
+                        "%s{\"description\": \"%s\", \"n\": %d, \"average\": %f, \"standardDeviation\": %f, \"standardError\": %f, \"min\": %f, \"max\": %f, \"msTaken\": %d}",
+                        i == 0 ? "" : ", ",
+                        String.valueOf(stats[i].getDescription()).replace("\\", "\\\\").replace("\"", "\\\""),
+                        stats[i].getN(),
+                        stats[i].getAverage(),
+                        stats[i].getStandardDeviation(),
+                        stats[i].getStandardError(),
+                        stats[i].getMin(),
+                        stats[i].getMax(),
+                        stats[i].getMsTaken()));
+            }
+            json.append("]");
+
+            if (profile != null) {
+                try (FileWriter latency = new FileWriter(baseName + "-latency.csv")) {
+                    profile.writeCsv(latency);
+                }
+                json.append(", \"latency\": ").append(profile.toJson());
+            }
+            json.append("}");
+
+            saveToFile(json.toString(), baseName + ".json", false);
+        } catch (IOException e) {
+            System.out.println("Could not save data!");
+        }
+    }
+
+    /**
+     * @return the tick latency breakdown of the last finished experiment, or null if profiling is disabled
+     */
+    public TickProfile getLastProfile() {
+        return lastProfile;
+    }
+
     //save file for replays
     public static void saveToFile(String data, String name, boolean append) {
         try (FileOutputStream outS = new FileOutputStream(name, append)) {
@@ -221,7 +363,8 @@ public class MyExecutor {
     public Stats[] runExperiment(Controller<MOVE> pacManController, MASController ghostController, int trials, String description) {
         Stats stats = new Stats(description);
         Stats ticks = new Stats(description + " Ticks");
-        MASController ghostControllerCopy = ghostController.copy(ghostPO);
+        TickProfile profile = profiling ? new TickProfile() : null;
+        Match match = new Match(pacManController, ghostController, profile);
         Game game;
 
         Long startTime = System.currentTimeMillis();
@@ -234,9 +377,7 @@ public class MyExecutor {
                         break;
                     }
                     handlePeek(game);
-                    game.advanceGame(
-                            pacManController.getMove(getPacmanCopy(game), System.currentTimeMillis() + timeLimit),
-                            ghostControllerCopy.getMove(game.copy(), System.currentTimeMillis() + timeLimit));
+                    match.tick(game);
                 }
                 stats.add(game.getScore());
                 ticks.add(game.getCurrentLevelTime());
@@ -246,6 +387,524 @@ public class MyExecutor {
                 e.printStackTrace();
             }
         }
+        match.close();
+        long timeTaken = System.currentTimeMillis() - startTime;
+        stats.setMsTaken(timeTaken);
+        ticks.setMsTaken(timeTaken);
+        lastProfile = profile;
+
+        return new Stats[]{stats, ticks};
+    }
+
+    /**
+     * Parallel version of {@link #runExperiment}. Trials are spread over the configured number of workers (see
+     * {@link Builder#setWorkers(int)}); every worker plays its games with its own Pac-Man controller from the factory
+     * and its own copy of the ghost controller, so no controller state is shared between threads. The seeds for all
+     * games are drawn up front, so trial i is played on the same game seed whichever worker picks it up. The scores
+     * still vary from run to run: the controllers draw their own unseeded random numbers, and a worker's controller
+     * keeps its state from one trial to the next.
+     *
+     * @param pacManFactory   Creates one Pac-Man controller per worker
+     * @param ghostController The Ghosts controller
+     * @param trials          The number of trials to be executed
+     * @param description     Description for the stats
+     * @return Stats[] containing the scores in index 0 and the ticks in position 1, in trial order
+     */
+    public Stats[] runExperimentParallel(Supplier<? extends Controller<MOVE>> pacManFactory, MASController ghostController, int trials, String description) {
+        Stats stats = new Stats(description);
+        Stats ticks = new Stats(description + " Ticks");
+        int[] scores = new int[trials];
+        int[] times = new int[trials];
+        long[] seeds = new long[trials];
+        for (int i = 0; i < trials; i++) {
+            seeds[i] = rnd.nextLong();
+        }
+
+        int poolSize = Math.max(1, Math.min(workers, trials));
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        AtomicInteger nextTrial = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        List<TickProfile> profiles = new ArrayList<>();
+        List<Match> matches = new ArrayList<>();
+
+        long startTime = System.currentTimeMillis();
+        for (int w = 0; w < poolSize; w++) {
+            TickProfile workerProfile = profiling ? new TickProfile() : null;
+            Match match = new Match(pacManFactory.get(), ghostController, workerProfile);
+            profiles.add(workerProfile);
+            matches.add(match);
+
+            futures.add(pool.submit(() -> {
+                for (int i = nextTrial.getAndIncrement(); i < trials; i = nextTrial.getAndIncrement()) {
+                    long seed = seeds[i];
+                    while (true) {
+                        try {
+                            Game game = match.play(seed);
+                            scores[i] = game.getScore();
+                            times[i] = game.getCurrentLevelTime();
+                            break;
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            // Same as the serial runner: a crashed game is replayed, on a seed derived from the old one
+                            seed = seed * 6364136223846793005L + 1442695040888963407L;
+                        }
+                    }
+                    System.out.println("Game finished: " + finished.incrementAndGet() + "   " + description);
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for experiment workers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Experiment worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (Match match : matches) {
+                match.close();
+            }
+        }
+
+        for (int i = 0; i < trials; i++) {
+            stats.add(scores[i]);
+            ticks.add(times[i]);
+        }
+        long timeTaken = System.currentTimeMillis() - startTime;
+        stats.setMsTaken(timeTaken);
+        ticks.setMsTaken(timeTaken);
+        if (profiling) {
+            TickProfile profile = new TickProfile();
+            for (TickProfile workerProfile : profiles) {
+                profile.merge(workerProfile);
+            }
+            lastProfile = profile;
+        }
+
+        return new Stats[]{stats, ticks};
+    }
+
+    /**
+     * A Pac-Man controller and a copy of the ghost team playing headless games in the synchronous loops. Holds the
+     * optional tick profile and, when deadlines are enforced, the worker threads the controllers run on.
+     */
+    private final class Match {
+        private final Controller<MOVE> pacManController;
+        private final MASController ghostController;
+        private final boolean ghostsReadOnly;
+        private final TickProfile profile;
+        private final MoveWorker<MOVE> pacManWorker;
+        private final MoveWorker<EnumMap<GHOST, MOVE>> ghostWorker;
+        private int pacManOverruns;
+        private int ghostOverruns;
+
+        Match(Controller<MOVE> pacManController, MASController ghostController, TickProfile profile) {
+            this.pacManController = pacManController;
+            this.ghostController = ghostController.copy(ghostPO);
+            this.ghostsReadOnly = ghostController instanceof ReadOnlyController;
+            this.profile = profile;
+            this.pacManWorker = enforceDeadlines ? new MoveWorker<>(pacManController, MOVE.NEUTRAL) : null;
+            this.ghostWorker = enforceDeadlines ? new MoveWorker<>(this.ghostController, null) : null;
+        }
+
+        /**
+         * Plays one game to the end (or the tick limit) on the given seed.
+         */
+        Game play(long seed) {
+            Game game = setupGame(seed);
+
+            while (!game.gameOver()) {
+                if (tickLimit != -1 && tickLimit < game.getTotalTime()) {
+                    break;
+                }
+                handlePeek(game);
+                tick(game);
+            }
+            return game;
+        }
+
+        /**
+         * Asks both controllers for their move and advances the game by one tick. With a profile every phase of the
+         * tick is timed separately.
+         */
+        void tick(Game game) {
+            if (enforceDeadlines) {
+                enforcedTick(game);
+                return;
+            }
+            if (profile == null) {
+                game.advanceGame(
+                        pacManController.getMove(getPacmanObservation(game, pacManController), System.currentTimeMillis() + timeLimit),
+                        ghostController.getMove(getGhostObservation(game, ghostsReadOnly), System.currentTimeMillis() + timeLimit));
+                return;
+            }
+
+            long start = System.nanoTime();
+            Game pacManCopy = getPacmanObservation(game, pacManController);
+            long copied = System.nanoTime();
+            long timeDue = System.currentTimeMillis() + timeLimit;
+            MOVE pacManMove = pacManController.getMove(pacManCopy, timeDue);
+            long moved = System.nanoTime();
+            if (System.currentTimeMillis() > timeDue) {
+                profile.pacManOverrun();
+            }
+            if (pacManCopy != game) {
+                profile.record(TickProfile.Phase.GAME_COPY, copied - start);
+            }
+            profile.record(TickProfile.Phase.PACMAN_MOVE, moved - copied);
+
+            start = System.nanoTime();
+            Game ghostCopy = getGhostObservation(game, ghostsReadOnly);
+            copied = System.nanoTime();
+            timeDue = System.currentTimeMillis() + timeLimit;
+            EnumMap<GHOST, MOVE> ghostMoves = ghostController.getMove(ghostCopy, timeDue);
+            moved = System.nanoTime();
+            if (System.currentTimeMillis() > timeDue) {
+                profile.ghostOverrun();
+            }
+            if (ghostCopy != game) {
+                profile.record(TickProfile.Phase.GAME_COPY, copied - start);
+            }
+            profile.record(TickProfile.Phase.GHOST_MOVE, moved - copied);
+
+            start = System.nanoTime();
+            game.advanceGame(pacManMove, ghostMoves);
+            profile.record(TickProfile.Phase.ADVANCE_GAME, System.nanoTime() - start);
+        }
+
+        /**
+         * Tick as on the competition server: both controllers compute in parallel on their worker threads and a
+         * controller that has not answered by the deadline (or is still busy with an earlier tick) keeps its last
+         * move. The late call is left to finish in the background. The controllers always get their own copies here,
+         * since a late controller may still be reading while the game advances.
+         */
+        private void enforcedTick(Game game) {
+            long copyStart = System.nanoTime();
+            Game pacManCopy = getPacmanCopy(game);
+            Game ghostCopy = game.copy();
+            long copied = System.nanoTime();
+
+            long timeDue = System.currentTimeMillis() + timeLimit;
+            CountDownLatch pacManDone = new CountDownLatch(1);
+            CountDownLatch ghostsDone = new CountDownLatch(1);
+            boolean pacManStarted = pacManWorker.request(pacManCopy, timeDue, pacManDone);
+            boolean ghostsStarted = ghostWorker.request(ghostCopy, timeDue, ghostsDone);
+
+            MOVE pacManMove = null;
+            EnumMap<GHOST, MOVE> ghostMoves = null;
+            long pacManAnswered;
+            long ghostsAnswered;
+            try {
+                if (pacManStarted && pacManDone.await(timeDue - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+                    pacManMove = pacManWorker.getMove();
+                }
+                pacManAnswered = System.nanoTime();
+                if (ghostsStarted && ghostsDone.await(timeDue - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+                    ghostMoves = ghostWorker.getMove();
+                }
+                ghostsAnswered = System.nanoTime();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pacManAnswered = ghostsAnswered = System.nanoTime();
+            }
+
+            if (pacManMove == null) {
+                pacManMove = game.getPacmanLastMoveMade() != null ? game.getPacmanLastMoveMade() : MOVE.NEUTRAL;
+                pacManOverruns++;
+                if (profile != null) {
+                    profile.pacManOverrun();
+                }
+            }
+            if (ghostMoves == null) {
+                ghostMoves = new EnumMap<>(GHOST.class);
+                for (GHOST ghost : GHOST.values()) {
+                    MOVE lastMove = game.getGhostLastMoveMade(ghost);
+                    ghostMoves.put(ghost, lastMove != null ? lastMove : MOVE.NEUTRAL);
+                }
+                ghostOverruns++;
+                if (profile != null) {
+                    profile.ghostOverrun();
+                }
+            }
+
+            long start = System.nanoTime();
+            game.advanceGame(pacManMove, ghostMoves);
+            if (profile != null) {
+                profile.record(TickProfile.Phase.GAME_COPY, copied - copyStart);
+                profile.record(TickProfile.Phase.PACMAN_MOVE, pacManAnswered - copied);
+                profile.record(TickProfile.Phase.GHOST_MOVE, ghostsAnswered - copied);
+                profile.record(TickProfile.Phase.ADVANCE_GAME, System.nanoTime() - start);
+            }
+        }
+
+        void close() {
+            if (!enforceDeadlines) {
+                return;
+            }
+            pacManWorker.terminate();
+            ghostWorker.terminate();
+            if (pacManOverruns > 0 || ghostOverruns > 0) {
+                System.out.println("Deadline missed " + pacManOverruns + " times by Pac-Man and " + ghostOverruns + " times by the ghosts");
+            }
+        }
+    }
+
+    /**
+     * Paired A/B comparison of two Pac-Man controllers. Both controllers play the same sequence of game seeds (set
+     * {@link Builder#setSeed(long)} to make the schedule itself reproducible), each against a fresh copy of the ghost
+     * team, and the per-seed score difference A - B is tracked. Pairing only fixes the game seed: the controllers and
+     * ghosts draw their own unseeded random numbers, so a pair still differs by their luck as well as by their skill.
+     * It removes the maze-to-maze part of the variance, which is usually the larger part, so fewer games are needed
+     * than with two independent experiments.
+     * <p>
+     * The data is only looked at after {@value #MIN_PAIRED_TRIALS} pairs, twice as many, four times as many and so on,
+     * and after maxTrials pairs. At every look the t confidence interval of the mean difference is computed at
+     * 1 - {@value #PAIRED_ALPHA} / looks, so that all looks together are wrong with a chance of at most
+     * {@value #PAIRED_ALPHA}, and the benchmark stops if it excludes zero (significant) or lies entirely within
+     * +/- negligibleDifference (negligible).
+     *
+     * @param pacManA              The first Pac-Man controller
+     * @param pacManB              The second Pac-Man controller
+     * @param ghostController      The Ghosts controller
+     * @param maxTrials            The maximum number of seed pairs to play
+     * @param negligibleDifference Score difference below which the controllers are considered equal
+     * @param description          Description for the stats
+     * @return Stats[] containing the scores of A in index 0, the scores of B in index 1 and the differences A - B in
+     * index 2
+     */
+    public Stats[] runPairedBenchmark(Controller<MOVE> pacManA, Controller<MOVE> pacManB, MASController ghostController, int maxTrials, double negligibleDifference, String description) {
+        Stats statsA = new Stats(description + " A");
+        Stats statsB = new Stats(description + " B");
+        Stats difference = new Stats(description + " A - B");
+        String verdict = "inconclusive";
+
+        // Running mean and sum of squared deviations (Welford) of the paired differences
+        double mean = 0;
+        double m2 = 0;
+        double halfWidth = Double.POSITIVE_INFINITY;
+
+        int looks = 0;
+        for (int n = MIN_PAIRED_TRIALS; n <= maxTrials; n = n < maxTrials / 2 ? n * 2 : maxTrials) {
+            looks++;
+            if (n == maxTrials) {
+                break;
+            }
+        }
+        double tailProbability = PAIRED_ALPHA / Math.max(1, looks) / 2;
+        int nextLook = MIN_PAIRED_TRIALS;
+
+        long startTime = System.currentTimeMillis();
+        for (int n = 1; n <= maxTrials; n++) {
+            long seed = rnd.nextLong();
+            int scoreA = playPairedGame(pacManA, ghostController, seed);
+            int scoreB = playPairedGame(pacManB, ghostController, seed);
+            int diff = scoreA - scoreB;
+
+            statsA.add(scoreA);
+            statsB.add(scoreB);
+            difference.add(diff);
+
+            double delta = diff - mean;
+            mean += delta / n;
+            m2 += delta * (diff - mean);
+
+            if (n < nextLook) {
+                continue;
+            }
+            nextLook = nextLook < maxTrials / 2 ? nextLook * 2 : maxTrials;
+            halfWidth = studentQuantile(tailProbability, n - 1) * Math.sqrt(m2 / (n - 1) / n);
+            if (Math.abs(mean) > halfWidth) {
+                verdict = "significant";
+                break;
+            }
+            if (Math.abs(mean) + halfWidth < negligibleDifference) {
+                verdict = "negligible";
+                break;
+            }
+        }
+        long timeTaken = System.currentTimeMillis() - startTime;
+        statsA.setMsTaken(timeTaken);
+        statsB.setMsTaken(timeTaken);
+        difference.setMsTaken(timeTaken);
+
+        System.out.println(String.format("%s: %d pairs, A - B = %.1f, %.2f%% CI [%.1f, %.1f], %s",
+                description, difference.getN(), mean, 100 * (1 - 2 * tailProbability), mean - halfWidth, mean + halfWidth, verdict));
+
+        return new Stats[]{statsA, statsB, difference};
+    }
+
+    /**
+     * The value a Student t variable with the given degrees of freedom exceeds with the given small probability, from
+     * the normal quantile by the Cornish-Fisher expansion (Hill 1970); good to about 0.01 from 10 degrees of freedom.
+     */
+    private static double studentQuantile(double tailProbability, int degreesOfFreedom) {
+        double z = -normalQuantile(tailProbability);
+        double z2 = z * z;
+        double v = degreesOfFreedom;
+        return z
+                + z * (z2 + 1) / (4 * v)
+                + z * ((5 * z2 + 16) * z2 + 3) / (96 * v * v)
+                + z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * v * v * v)
+                + z * ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) / (92160 * v * v * v * v);
+    }
+
+    /**
+     * The value a standard normal variable falls below with probability p, by Acklam's rational approximation
+     * (relative error below 1.2e-9).
+     */
+    private static double normalQuantile(double p) {
+        if (p > 0.5) {
+            return -normalQuantile(1 - p);
+        }
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                    - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                    / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                    + 3.754408661907416e+00) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+    }
+
+    private int playPairedGame(Controller<MOVE> pacManController, MASController ghostController, long seed) {
+        Match match = new Match(pacManController, ghostController, null);
+        try {
+            return match.play(seed).getScore();
+        } finally {
+            match.close();
+        }
+    }
+
+    /**
+     * Multi-process version of {@link #runExperiment}. The trials are split into one contiguous range of game numbers
+     * per process, and each range is played by a separate {@link ExperimentWorker} JVM on this machine with the same
+     * executor settings. Workers append one line per finished game to a result file, so a worker that crashes only
+     * loses its unfinished games; those are reported and left out of the stats. A worker that runs past the shard
+     * timeout (see {@link Builder#setShardTimeout}) is killed the same way, and result lines that cannot be read,
+     * such as one cut off by the kill, count as unfinished games. The temporary directory with the result files and
+     * worker logs is deleted when every worker exited normally and every game finished, and kept for a look otherwise.
+     * <p>
+     * The controllers are created by class name inside the workers and need a public no-argument constructor.
+     * A custom messenger or peek function is not passed on: workers use a {@link BasicMessenger} when ghosts may
+     * message.
+     *
+     * @param pacManClassName The Pac-Man controller class
+     * @param ghostClassName  The Ghosts controller class
+     * @param trials          The number of trials to be executed
+     * @param processes       The number of worker JVMs
+     * @param description     Description for the stats
+     * @return Stats[] containing the scores in index 0 and the ticks in position 1, in game order
+     */
+    public Stats[] runExperimentSharded(String pacManClassName, String ghostClassName, int trials, int processes, String description) {
+        Stats stats = new Stats(description);
+        Stats ticks = new Stats(description + " Ticks");
+        int[] scores = new int[trials];
+        int[] times = new int[trials];
+        boolean[] finished = new boolean[trials];
+        long baseSeed = rnd.nextLong();
+        int shards = Math.max(1, Math.min(processes, trials));
+
+        long startTime = System.currentTimeMillis();
+        try {
+            Path directory = Files.createTempDirectory("pacman-shards");
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            Process[] workerProcesses = new Process[shards];
+            Path[] resultFiles = new Path[shards];
+            int[] from = new int[shards];
+            int[] to = new int[shards];
+
+            for (int k = 0; k < shards; k++) {
+                from[k] = (int) ((long) trials * k / shards);
+                to[k] = (int) ((long) trials * (k + 1) / shards);
+                resultFiles[k] = directory.resolve("shard-" + k + ".txt");
+
+                ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ExperimentWorker.class.getName(),
+                        pacManClassName, ghostClassName, Long.toString(baseSeed), Integer.toString(from[k]), Integer.toString(to[k]),
+                        resultFiles[k].toString(), Boolean.toString(pacmanPO), Boolean.toString(ghostPO),
+                        Boolean.toString(ghostsMessage), Integer.toString(tickLimit), Integer.toString(timeLimit),
+                        poType.name(), Integer.toString(sightLimit));
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(directory.resolve("shard-" + k + ".log").toFile());
+                workerProcesses[k] = builder.start();
+            }
+
+            boolean clean = true;
+            for (int k = 0; k < shards; k++) {
+                long deadline = startTime + shardTimeoutMillis(to[k] - from[k]);
+                Process worker = workerProcesses[k];
+                if (!worker.waitFor(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    worker.destroy();
+                    if (!worker.waitFor(5, TimeUnit.SECONDS)) {
+                        worker.destroyForcibly().waitFor();
+                    }
+                    System.out.println("Shard " + k + " timed out and was killed, see " + directory.resolve("shard-" + k + ".log"));
+                    clean = false;
+                } else if (worker.exitValue() != 0) {
+                    System.out.println("Shard " + k + " exited with code " + worker.exitValue() + ", see " + directory.resolve("shard-" + k + ".log"));
+                    clean = false;
+                }
+                if (!Files.exists(resultFiles[k])) {
+                    continue;
+                }
+                int malformed = 0;
+                for (String line : Files.readAllLines(resultFiles[k])) {
+                    String[] fields = line.trim().split(" ");
+                    try {
+                        int game = fields.length == 3 ? Integer.parseInt(fields[0]) : -1;
+                        if (game < from[k] || game >= to[k]) {
+                            malformed++;
+                            continue;
+                        }
+                        int score = Integer.parseInt(fields[1]);
+                        int time = Integer.parseInt(fields[2]);
+                        scores[game] = score;
+                        times[game] = time;
+                        finished[game] = true;
+                    } catch (NumberFormatException e) {
+                        malformed++;
+                    }
+                }
+                if (malformed > 0) {
+                    System.out.println("Shard " + k + ": skipped " + malformed + " unreadable result lines in " + resultFiles[k]);
+                    clean = false;
+                }
+                for (int game = from[k]; game < to[k] && clean; game++) {
+                    clean = finished[game];
+                }
+            }
+            if (clean) {
+                deleteDirectory(directory);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not run experiment shards", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for experiment shards", e);
+        }
+
+        int missing = 0;
+        for (int i = 0; i < trials; i++) {
+            if (finished[i]) {
+                stats.add(scores[i]);
+                ticks.add(times[i]);
+            } else {
+                missing++;
+            }
+        }
+        if (missing > 0) {
+            System.out.println(missing + " of " + trials + " games did not finish   " + description);
+        }
         long timeTaken = System.currentTimeMillis() - startTime;
         stats.setMsTaken(timeTaken);
         ticks.setMsTaken(timeTaken);
@@ -253,8 +912,58 @@ public class MyExecutor {
         return new Stats[]{stats, ticks};
     }
 
+    /**
+     * How long a worker JVM playing the given number of games may run, see {@link Builder#setShardTimeout}.
+     */
+    private long shardTimeoutMillis(int games) {
+        if (shardTimeout > 0) {
+            return TimeUnit.MINUTES.toMillis(shardTimeout);
+        }
+        long ticks = (long) games * (tickLimit > 0 ? tickLimit : MAX_TIME);
+        return TimeUnit.MINUTES.toMillis(1) + 2 * ticks * Math.max(1, timeLimit);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Plays games from (inclusive) to to (exclusive) of a sharded experiment and appends "game score ticks" to the
+     * result file after every game. A game whose controller throws is skipped.
+     */
+    void runShard(Controller<MOVE> pacManController, MASController ghostController, long baseSeed, int from, int to, String resultFile) throws IOException {
+        Match match = new Match(pacManController, ghostController, null);
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(resultFile))) {
+            for (int i = from; i < to; i++) {
+                try {
+                    Game game = match.play(shardSeed(baseSeed, i));
+                    out.println(i + " " + game.getScore() + " " + game.getCurrentLevelTime());
+                    out.flush();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            match.close();
+        }
+    }
+
+    private static long shardSeed(long baseSeed, int game) {
+        return new Random(baseSeed + game * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
     private Game setupGame() {
-        return (this.ghostsMessage) ? new Game(rnd.nextLong(), 0, messenger.copy(), poType, sightLimit) : new Game(rnd.nextLong(), 0, null, poType, sightLimit);
+        return setupGame(rnd.nextLong());
+    }
+
+    private Game setupGame(long seed) {
+        return (this.ghostsMessage) ? new Game(seed, 0, messenger.copy(), poType, sightLimit) : new Game(seed, 0, null, poType, sightLimit);
     }
 
     private void handlePeek(Game game){
@@ -265,7 +974,8 @@ public class MyExecutor {
         Stats stats = new Stats(description);
         Stats ticks = new Stats(description);
 
-        MASController ghostControllerCopy = ghostController.copy(ghostPO);
+        TickProfile profile = profiling ? new TickProfile() : null;
+        Match match = new Match(pacManController, ghostController, profile);
         Game game;
 
         Long startTime = System.currentTimeMillis();
@@ -274,32 +984,35 @@ public class MyExecutor {
 
             while (!game.gameOver()) {
                 handlePeek(game);
-                game.advanceGame(
-                        pacManController.getMove(getPacmanCopy(game), System.currentTimeMillis() + timeLimit),
-                        ghostControllerCopy.getMove(game.copy(), System.currentTimeMillis() + timeLimit));
+                match.tick(game);
             }
             System.out.println(game.getScore());
             stats.add(game.getScore());
             ticks.add(game.getTotalTime());
         }
+        match.close();
         stats.setMsTaken(System.currentTimeMillis() - startTime);
         ticks.setMsTaken(System.currentTimeMillis() - startTime);
+        lastProfile = profile;
 
         return new Stats[]{stats, ticks};
     }
 
+    /**
+     * Trains the controller's Q-tables for maxEpisode episodes, continuing the episode count and exploration schedule
+     * of a loaded checkpoint. With {@link Builder#setCheckpoint} set, checkpoints are written along the way.
+     */
     public double[] runQLearningTraining(QLearningPacMan pacManController, MASController ghostController, int maxEpisode, boolean visualize) {
-        double maxExplorationRate = 1.0;
-        double minExplorationRate = 0.01;
-        double explorationDecayRate = 0.00001;
         double[] rewards = new double[maxEpisode];
 
-        MASController ghostControllerCopy = ghostController.copy(ghostPO);
+        Match match = new Match(pacManController, ghostController, null);
         Game game;
+        int firstEpisode = pacManController.getEpisodes();
+        CheckpointWriter checkpoints = checkpointFile == null ? null : new CheckpointWriter(checkpointFile);
 
         Long startTime = System.currentTimeMillis();
         for (int i = 0; i < maxEpisode; i++) {
-            int episode = i + 1;
+            int episode = firstEpisode + i + 1;
 
             game = setupGame();
 
@@ -307,9 +1020,7 @@ public class MyExecutor {
 
             while (!game.gameOver()) {
                 handlePeek(game);
-                game.advanceGame(
-                        pacManController.getMove(getPacmanCopy(game), System.currentTimeMillis() + timeLimit),
-                        ghostControllerCopy.getMove(game.copy(), System.currentTimeMillis() + timeLimit));
+                match.tick(game);
 
                 if (visualize) {
                     try {
@@ -323,7 +1034,7 @@ public class MyExecutor {
 
             if (visualize) gv.closeGame();
 
-            double updatedExplorationRate = minExplorationRate + (maxExplorationRate - minExplorationRate) * Math.exp(-explorationDecayRate * episode);
+            double updatedExplorationRate = explorationRate(episode);
 
             System.out.println(String.format("Episode %05d", episode));
             System.out.println(String.format("Score: %04d | epsilon: %.4f | heuristic: %.3f", game.getScore(), pacManController.explorationRate, pacManController.totalReward));
@@ -331,11 +1042,109 @@ public class MyExecutor {
             rewards[i] = pacManController.totalReward;
 
             pacManController.reset(updatedExplorationRate);
+            pacManController.setEpisodes(episode);
+            if (checkpoints != null && episode % checkpointInterval == 0) {
+                checkpoints.submit(() -> pacManController.checkpoints(episode, updatedExplorationRate));
+            }
         }
+        match.close();
+        finishCheckpoints(checkpoints, pacManController);
+        System.out.print(pacManController.getQTables().memoryReport());
 
         return rewards;
     }
 
+    /**
+     * Parallel version of {@link #runQLearningTraining} without visuals. The configured number of workers (see
+     * {@link Builder#setWorkers(int)}) each play episodes with their own {@link QLearningPacMan} and ghost team, but
+     * all of them learn into the Q-tables of the given controller. The exploration rate follows the same schedule as
+     * the serial training, driven by the total number of episodes finished by all workers. Like the experiments,
+     * episodes end at the tick limit.
+     *
+     * @param pacManController The controller whose Q-tables are trained
+     * @param ghostController  The Ghosts controller
+     * @param maxEpisode       The number of episodes over all workers
+     * @return the total reward of every episode, in the order the episodes were started
+     */
+    public double[] runQLearningTrainingParallel(QLearningPacMan pacManController, MASController ghostController, int maxEpisode) {
+        double[] rewards = new double[maxEpisode];
+        QTableRegistry qTables = pacManController.getQTables();
+        int firstEpisode = pacManController.getEpisodes();
+        CheckpointWriter checkpoints = checkpointFile == null ? null : new CheckpointWriter(checkpointFile);
+
+        int poolSize = Math.max(1, Math.min(workers, maxEpisode));
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        AtomicInteger nextEpisode = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger(firstEpisode);
+        List<Future<?>> futures = new ArrayList<>();
+        List<Match> matches = new ArrayList<>();
+
+        for (int w = 0; w < poolSize; w++) {
+            QLearningPacMan actor = new QLearningPacMan(qTables, rnd.nextLong());
+            actor.reset(pacManController.explorationRate);
+            Match match = new Match(actor, ghostController, null);
+            matches.add(match);
+            long actorSeed = rnd.nextLong();
+
+            futures.add(pool.submit(() -> {
+                Random actorRandom = new Random(actorSeed);
+                for (int i = nextEpisode.getAndIncrement(); i < maxEpisode; i = nextEpisode.getAndIncrement()) {
+                    Game game = match.play(actorRandom.nextLong());
+
+                    int episode = finished.incrementAndGet();
+                    System.out.println(String.format("Episode %05d | Score: %04d | epsilon: %.4f | heuristic: %.3f",
+                            episode, game.getScore(), actor.explorationRate, actor.totalReward));
+
+                    rewards[i] = actor.totalReward;
+                    actor.reset(explorationRate(episode));
+                    if (checkpoints != null && episode % checkpointInterval == 0) {
+                        checkpoints.submit(() -> pacManController.checkpoints(episode, explorationRate(episode)));
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for training workers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Training worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (Match match : matches) {
+                match.close();
+            }
+        }
+
+        pacManController.reset(explorationRate(firstEpisode + maxEpisode));
+        pacManController.setEpisodes(firstEpisode + maxEpisode);
+        finishCheckpoints(checkpoints, pacManController);
+        System.out.print(qTables.memoryReport());
+        return rewards;
+    }
+
+    // Waits for a background checkpoint still being written, then writes the final one
+    private void finishCheckpoints(CheckpointWriter checkpoints, QLearningPacMan pacManController) {
+        if (checkpoints == null) {
+            return;
+        }
+        try {
+            checkpoints.finish(pacManController.checkpoints(pacManController.getEpisodes(), pacManController.explorationRate));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write checkpoint " + checkpointFile, e);
+        }
+        System.out.println("Checkpoints: " + checkpoints.getWritten() + " written, " + checkpoints.getDropped()
+                + " dropped while the previous one was being written");
+    }
+
+    private static double explorationRate(int episode) {
+        return MIN_EXPLORATION_RATE + (MAX_EXPLORATION_RATE - MIN_EXPLORATION_RATE) * Math.exp(-EXPLORATION_DECAY_RATE * episode);
+    }
+
     /**
      * Run a game in asynchronous mode: the game waits until a move is returned. In order to slow thing down in case
      * the controllers return very quickly, a time limit can be used. If fasted gameplay is required, this delay
@@ -350,16 +1159,14 @@ public class MyExecutor {
 
         GameView gv = (visuals) ? setupGameView(pacManController, game) : null;
 
-        MASController ghostControllerCopy = ghostController.copy(ghostPO);
+        Match match = new Match(pacManController, ghostController, null);
 
         while (!game.gameOver()) {
             if (tickLimit != -1 && tickLimit < game.getTotalTime()) {
                 break;
             }
             handlePeek(game);
-            game.advanceGame(
-                    pacManController.getMove(getPacmanCopy(game), System.currentTimeMillis() + timeLimit),
-                    ghostControllerCopy.getMove(game.copy(), System.currentTimeMillis() + timeLimit));
+            match.tick(game);
 
             try {
                 Thread.sleep(delay);
@@ -370,6 +1177,7 @@ public class MyExecutor {
                 gv.repaint();
             }
         }
+        match.close();
         System.out.println(game.getScore());
         return game.getScore();
     }
@@ -378,6 +1186,18 @@ public class MyExecutor {
         return game.copy((pacmanPO) ? Game.PACMAN : Game.CLONE);
     }
 
+    /**
+     * The game handed to the Pac-Man controller in the synchronous loops: the live game for a fully observing
+     * {@link ReadOnlyController}, otherwise its own copy.
+     */
+    private Game getPacmanObservation(Game game, Controller<MOVE> pacManController) {
+        return (!pacmanPO && pacManController instanceof ReadOnlyController) ? game : getPacmanCopy(game);
+    }
+
+    private Game getGhostObservation(Game game, boolean ghostsReadOnly) {
+        return ghostsReadOnly ? game : game.copy();
+    }
+
     private GameView setupGameView(Controller<MOVE> pacManController, Game game) {
         GameView gv;
         gv = new GameView(game, setDaemon);
@@ -439,7 +1259,8 @@ public class MyExecutor {
 
     /**
      * Run the game in asynchronous mode but proceed as soon as both controllers replied. The time limit still applies so
-     * so the game will proceed after 40ms regardless of whether the controllers managed to calculate a turn.
+     * so the game will proceed after 40ms regardless of whether the controllers managed to calculate a turn. The
+     * controllers signal their moves through a latch, so the game advances the moment both have answered.
      *
      * @param pacManController The Pac-Man controller
      * @param ghostController  The Ghosts controller
@@ -454,33 +1275,30 @@ public class MyExecutor {
         MASController ghostControllerCopy = ghostController.copy(ghostPO);
         Stats stats = new Stats(desc);
 
-        new Thread(pacManController).start();
-        new Thread(ghostControllerCopy).start();
+        MoveWorker<MOVE> pacManWorker = new MoveWorker<>(pacManController, MOVE.NEUTRAL);
+        MoveWorker<EnumMap<GHOST, MOVE>> ghostWorker = new MoveWorker<>(ghostControllerCopy, null);
         while (!game.gameOver()) {
             if (tickLimit != -1 && tickLimit < game.getTotalTime()) {
                 break;
             }
             handlePeek(game);
-            pacManController.update(getPacmanCopy(game), System.currentTimeMillis() + DELAY);
-            ghostControllerCopy.update(game.copy(), System.currentTimeMillis() + DELAY);
+            long timeDue = System.currentTimeMillis() + DELAY;
+            CountDownLatch computed = new CountDownLatch(2);
+            pacManWorker.request(getPacmanCopy(game), timeDue, computed);
+            ghostWorker.request(game.copy(), timeDue, computed);
 
             try {
-                long waited = DELAY / INTERVAL_WAIT;
-
-                for (int j = 0; j < DELAY / INTERVAL_WAIT; j++) {
-                    Thread.sleep(INTERVAL_WAIT);
-
-                    if (pacManController.hasComputed() && ghostControllerCopy.hasComputed()) {
-                        waited = j;
-                        break;
-                    }
-                }
+                // Proceed the moment both moves are in, but never later than the deadline
+                computed.await(timeDue - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
 
                 if (fixedTime) {
-                    Thread.sleep(((DELAY / INTERVAL_WAIT) - waited) * INTERVAL_WAIT);
+                    long remaining = timeDue - System.currentTimeMillis();
+                    if (remaining > 0) {
+                        Thread.sleep(remaining);
+                    }
                 }
 
-                game.advanceGame(pacManController.getMove(), ghostControllerCopy.getMove());
+                game.advanceGame(pacManWorker.getMove(), ghostWorker.getMove());
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
@@ -490,14 +1308,15 @@ public class MyExecutor {
             }
         }
 
-        pacManController.terminate();
-        ghostControllerCopy.terminate();
+        pacManWorker.terminate();
+        ghostWorker.terminate();
         stats.add(game.getScore());
         return stats;
     }
 
     /**
-     * Run a game in asynchronous mode and recorded.
+     * Run a game in asynchronous mode and recorded. The replay is streamed to disk tick by tick in the binary delta
+     * format of {@link ReplayWriter}.
      *
      * @param pacManController The Pac-Man controller
      * @param ghostController  The Ghosts controller
@@ -506,7 +1325,6 @@ public class MyExecutor {
      */
     public Stats runGameTimedRecorded(Controller<MOVE> pacManController, MASController ghostController, String fileName) {
         Stats stats = new Stats("");
-        StringBuilder replay = new StringBuilder();
 
         Game game = setupGame();
 
@@ -530,6 +1348,14 @@ public class MyExecutor {
         new Thread(pacManController).start();
         new Thread(ghostControllerCopy).start();
 
+        // A failed save turns recording off but never cuts the game short
+        ReplayWriter replay = null;
+        try {
+            replay = new ReplayWriter(fileName, REPLAY_KEYFRAME_INTERVAL);
+        } catch (IOException e) {
+            System.out.println("Could not save data!");
+        }
+
         while (!game.gameOver()) {
             if (tickLimit != -1 && tickLimit < game.getTotalTime()) {
                 break;
@@ -550,17 +1376,39 @@ public class MyExecutor {
                 gv.repaint();
             }
 
-            replay.append(game.getGameState() + "\n");
+            if (replay != null) {
+                try {
+                    replay.append(game.getGameState());
+                } catch (IOException e) {
+                    System.out.println("Could not save data!");
+                    closeQuietly(replay);
+                    replay = null;
+                }
+            }
+        }
+        if (replay != null) {
+            try {
+                replay.close();
+            } catch (IOException e) {
+                System.out.println("Could not save data!");
+            }
         }
         stats.add(game.getScore());
 
         pacManController.terminate();
         ghostControllerCopy.terminate();
 
-        saveToFile(replay.toString(), fileName, false);
         return stats;
     }
 
+    private static void closeQuietly(ReplayWriter replay) {
+        try {
+            replay.close();
+        } catch (IOException e) {
+            // Already failed, nothing more to save
+        }
+    }
+
     /**
      * Replay a previously saved game.
      *
@@ -568,8 +1416,23 @@ public class MyExecutor {
      * @param visual   Indicates whether or not to use visuals
      */
     public void replayGame(String fileName, boolean visual) {
-        ArrayList<String> timeSteps = loadReplay(fileName);
+        replayGame(fileName, visual, 0, false);
+    }
 
+    /**
+     * Replay a previously saved game from the given tick. Binary replays seek straight to the tick through their
+     * keyframe index; old text replays are still read line by line.
+     *
+     * @param fileName    The file name of the game to be played
+     * @param visual      Indicates whether or not to use visuals
+     * @param fromTick    The first tick to show, from 0
+     * @param fastForward Whether to skip the delay between ticks
+     * @throws IllegalArgumentException if fromTick is negative
+     */
+    public void replayGame(String fileName, boolean visual, int fromTick, boolean fastForward) {
+        if (fromTick < 0) {
+            throw new IllegalArgumentException("fromTick must not be negative: " + fromTick);
+        }
         Game game = setupGame();
 
         GameView gv = null;
@@ -580,17 +1443,37 @@ public class MyExecutor {
             gv.showGame();
         }
 
-        for (int j = 0; j < timeSteps.size(); j++) {
-            game.setGameState(timeSteps.get(j));
+        if (ReplayReader.isBinaryReplay(fileName)) {
+            try (ReplayReader replay = new ReplayReader(fileName)) {
+                if (fromTick < replay.getTickCount()) {
+                    showReplayTick(game, gv, replay.seek(fromTick), fastForward);
+                    while (replay.hasNext()) {
+                        showReplayTick(game, gv, replay.next(), fastForward);
+                    }
+                }
+            } catch (IOException ioe) {
+                ioe.printStackTrace();
+            }
+        } else {
+            ArrayList<String> timeSteps = loadReplay(fileName);
+            for (int j = fromTick; j < timeSteps.size(); j++) {
+                showReplayTick(game, gv, timeSteps.get(j), fastForward);
+            }
+        }
+    }
+
+    private void showReplayTick(Game game, GameView gv, String gameState, boolean fastForward) {
+        game.setGameState(gameState);
 
+        if (!fastForward) {
             try {
                 Thread.sleep(DELAY);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
-            if (visual) {
-                gv.repaint();
-            }
+        }
+        if (gv != null) {
+            gv.repaint();
         }
     }
-}
\ No newline at end of file
+}
@@ -5,7 +5,6 @@ import pacman.game.Constants;
 import pacman.game.Constants.MOVE;
 import pacman.game.Game;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 /*
@@ -13,15 +12,17 @@ import java.util.Random;
  * fill in the getMove() method. Any additional classes you write should either
  * be placed in this package or sub-packages (e.g., entrants.pacman.username).
  */
-public class MyPacMan extends PacmanController {
+public class MyPacMan extends PacmanController implements ReadOnlyController {
     private static final int MIN_DISTANCE = 20;
     private Random random = new Random();
+    private final NearestPillIndex pillIndex = new NearestPillIndex();
 
     @Override
     public MOVE getMove(Game game, long timeDue) {
 
         // Should always be possible as we are PacMan
         int current = game.getPacmanCurrentNodeIndex();
+        pillIndex.update(game);
 
         // Strategy 1: Adjusted for PO
         for (Constants.GHOST ghost : Constants.GHOST.values()) {
@@ -57,40 +58,12 @@ public class MyPacMan extends PacmanController {
             return game.getNextMoveTowardsTarget(current, game.getGhostCurrentNodeIndex(minGhost), Constants.DM.PATH);
         }
 
-        // Strategy 3: Go after the pills and power pills that we can see
-        int[] pills = game.getPillIndices();
-        int[] powerPills = game.getPowerPillIndices();
-
-        ArrayList<Integer> targets = new ArrayList<Integer>();
-
-        for (int i = 0; i < pills.length; i++) {
-            //check which pills are available
-            Boolean pillStillAvailable = game.isPillStillAvailable(i);
-            if (pillStillAvailable != null) {
-                if (pillStillAvailable) {
-                    targets.add(pills[i]);
-                }
-            }
-        }
-
-        for (int i = 0; i < powerPills.length; i++) {            //check with power pills are available
-            Boolean pillStillAvailable = game.isPillStillAvailable(i);
-            if (pillStillAvailable != null) {
-                if (pillStillAvailable) {
-                    targets.add(powerPills[i]);
-                }
-            }
-        }
-
-        if (!targets.isEmpty()) {
-            int[] targetsArray = new int[targets.size()];        //convert from ArrayList to array
-
-            for (int i = 0; i < targetsArray.length; i++) {
-                targetsArray[i] = targets.get(i);
-            }
+        // Strategy 3: Go after the nearest pill or power pill not yet seen eaten
+        int target = pillIndex.nearest(current, NearestPillIndex.PILLS | NearestPillIndex.POWER_PILLS);
+        if (target != -1) {
             //return the next direction once the closest target has been identified
 //            System.out.println("Hunting pill");
-            return game.getNextMoveTowardsTarget(current, game.getClosestNodeIndexFromNodeIndex(current, targetsArray, Constants.DM.PATH), Constants.DM.PATH);
+            return game.getNextMoveTowardsTarget(current, target, Constants.DM.PATH);
         }
 
 
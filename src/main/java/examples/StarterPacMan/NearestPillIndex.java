@@ -0,0 +1,248 @@
+package examples.StarterPacMan;
+
+import pacman.game.Game;
+import pacman.game.internal.Maze;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pills and power pills still available, kept up to date as Ms Pac-Man eats them, indexed to answer "the k
+ * nearest by path distance from a node" without measuring the distance to every one of them.
+ * <p>
+ * For every node of a maze, all pill and power pill positions are sorted once by path distance (the distance rings,
+ * shared by all indexes on that maze). A query walks the rings outwards from its node and stops after k available
+ * ones, which is quick while most pills are left. Late in a level, when most of the ring would be eaten pills, it
+ * instead goes through the short list of available ones and looks up their precomputed distances. Either way a
+ * query costs about the square root of the number of pills at worst, and allocates nothing.
+ * <p>
+ * Under partial observability a pill is only taken off once it is seen to be gone; since Ms Pac-Man always sees the
+ * node she eats at, that loses nothing she ate herself.
+ */
+final class NearestPillIndex {
+	static final int PILLS = 1;
+	static final int POWER_PILLS = 2;
+
+	private static final Map<Maze, Rings> RINGS = new ConcurrentHashMap<>();
+
+	/**
+	 * Every pill and power pill of a maze (slots: pills first, then power pills) sorted by path distance from every
+	 * node.
+	 */
+	private static final class Rings {
+		final int numberOfPills;
+		final int slots;
+		final int[] slotNode;
+		final short[] order; // node * slots + rank: slots from nearest to furthest
+		final short[] distance; // node * slots + slot, Short.MAX_VALUE if unreachable
+
+		Rings(Game game) {
+			int[] pillNodes = game.getPillIndices();
+			int[] powerPillNodes = game.getPowerPillIndices();
+			numberOfPills = pillNodes.length;
+			slots = pillNodes.length + powerPillNodes.length;
+			slotNode = new int[slots];
+			System.arraycopy(pillNodes, 0, slotNode, 0, pillNodes.length);
+			System.arraycopy(powerPillNodes, 0, slotNode, pillNodes.length, powerPillNodes.length);
+
+			int nodes = game.getNumberOfNodes();
+			order = new short[nodes * slots];
+			distance = new short[nodes * slots];
+			int[] sortKeys = new int[slots];
+			for (int node = 0; node < nodes; node++) {
+				for (int slot = 0; slot < slots; slot++) {
+					int pathDistance = game.getShortestPathDistance(node, slotNode[slot]);
+					short stored = pathDistance < 0 || pathDistance >= Short.MAX_VALUE ? Short.MAX_VALUE : (short) pathDistance;
+					distance[node * slots + slot] = stored;
+					sortKeys[slot] = stored * slots + slot;
+				}
+				Arrays.sort(sortKeys);
+				for (int rank = 0; rank < slots; rank++) {
+					order[node * slots + rank] = (short) (sortKeys[rank] % slots);
+				}
+			}
+		}
+	}
+
+	private Maze maze;
+	private Rings rings;
+	private int level = -1;
+
+	private boolean[] available = new boolean[0];
+	// Dense lists of the available pill and power pill slots, and where each slot is in its list
+	private int[] activePills = new int[0];
+	private int activePillCount;
+	private int[] activePowerPills = new int[0];
+	private int activePowerPillCount;
+	private int[] listPosition = new int[0];
+
+	private final int[] scratchNode = new int[1];
+	private int[] scratchDistance = new int[0];
+
+	/**
+	 * Brings the index in line with the game. Pills are only ever eaten where Ms Pac-Man stands, so normally only her
+	 * node is looked at; a new maze or level starts over, and a count that does not add up re-reads every pill.
+	 */
+	void update(Game game) {
+		Maze currentMaze = game.getCurrentMaze();
+		if (currentMaze != maze || game.getCurrentLevel() != level) {
+			reset(game, currentMaze);
+			return;
+		}
+
+		int node = game.getPacmanCurrentNodeIndex();
+		int pillIndex = game.getPillIndex(node);
+		int powerPillIndex = game.getPowerPillIndex(node);
+		if (pillIndex != -1 && Boolean.FALSE.equals(game.isPillStillAvailable(pillIndex))) {
+			eaten(pillIndex);
+		} else if (powerPillIndex != -1 && Boolean.FALSE.equals(game.isPowerPillStillAvailable(powerPillIndex))) {
+			eaten(rings.numberOfPills + powerPillIndex);
+		}
+
+		if (!game.isGamePo() && (activePillCount != game.getNumberOfActivePills() || activePowerPillCount != game.getNumberOfActivePowerPills())) {
+			readAll(game);
+		}
+	}
+
+	/**
+	 * The node of the nearest available pill or power pill of the given kinds, -1 if there is none.
+	 *
+	 * @param kinds {@link #PILLS}, {@link #POWER_PILLS} or both
+	 */
+	int nearest(int node, int kinds) {
+		int count = nearest(node, 1, kinds, scratchNode);
+		return count == 0 ? -1 : scratchNode[0];
+	}
+
+	/**
+	 * Writes the nodes of the k nearest available pills or power pills of the given kinds to out, nearest first, and
+	 * returns how many there were.
+	 */
+	int nearest(int node, int k, int kinds, int[] out) {
+		int matching = ((kinds & PILLS) != 0 ? activePillCount : 0) + ((kinds & POWER_PILLS) != 0 ? activePowerPillCount : 0);
+		k = Math.min(k, matching);
+		if (k == 0) {
+			return 0;
+		}
+
+		int slots = rings.slots;
+		if ((long) k * slots < (long) matching * matching) {
+			// Walk the ring outwards
+			int found = 0;
+			for (int rank = node * slots, end = rank + slots; rank < end && found < k; rank++) {
+				int slot = rings.order[rank];
+				if (available[slot] && (kinds & kind(slot)) != 0) {
+					out[found++] = rings.slotNode[slot];
+				}
+			}
+			return found;
+		}
+
+		// Few left: keep the k nearest of the available ones, in ring order for equal distances
+		if (scratchDistance.length < k) {
+			scratchDistance = new int[k];
+		}
+		int found = 0;
+		if ((kinds & PILLS) != 0) {
+			found = collect(node, k, activePills, activePillCount, out, found);
+		}
+		if ((kinds & POWER_PILLS) != 0) {
+			found = collect(node, k, activePowerPills, activePowerPillCount, out, found);
+		}
+		return found;
+	}
+
+	int getActivePills() {
+		return activePillCount;
+	}
+
+	int getActivePowerPills() {
+		return activePowerPillCount;
+	}
+
+	private int collect(int node, int k, int[] list, int size, int[] out, int found) {
+		int slots = rings.slots;
+		for (int i = 0; i < size; i++) {
+			int slot = list[i];
+			int key = rings.distance[node * slots + slot] * slots + slot;
+			if (found == k && key >= scratchDistance[k - 1]) {
+				continue;
+			}
+			int at = found < k ? found++ : k - 1;
+			while (at > 0 && scratchDistance[at - 1] > key) {
+				scratchDistance[at] = scratchDistance[at - 1];
+				out[at] = out[at - 1];
+				at--;
+			}
+			scratchDistance[at] = key;
+			out[at] = rings.slotNode[slot];
+		}
+		return found;
+	}
+
+	private int kind(int slot) {
+		return slot < rings.numberOfPills ? PILLS : POWER_PILLS;
+	}
+
+	private void reset(Game game, Maze currentMaze) {
+		if (currentMaze != maze) {
+			maze = currentMaze;
+			Rings existing = RINGS.get(currentMaze);
+			if (existing == null) {
+				existing = new Rings(game);
+				Rings raced = RINGS.putIfAbsent(currentMaze, existing);
+				if (raced != null) {
+					existing = raced;
+				}
+			}
+			rings = existing;
+			available = new boolean[rings.slots];
+			activePills = new int[rings.numberOfPills];
+			activePowerPills = new int[rings.slots - rings.numberOfPills];
+			listPosition = new int[rings.slots];
+		}
+		level = game.getCurrentLevel();
+		readAll(game);
+	}
+
+	/**
+	 * Rebuilds the lists from the game. A pill that cannot be seen is taken to be there.
+	 */
+	private void readAll(Game game) {
+		activePillCount = 0;
+		activePowerPillCount = 0;
+		for (int slot = 0; slot < rings.slots; slot++) {
+			Boolean stillAvailable = slot < rings.numberOfPills
+					? game.isPillStillAvailable(slot)
+					: game.isPowerPillStillAvailable(slot - rings.numberOfPills);
+			available[slot] = !Boolean.FALSE.equals(stillAvailable);
+			if (!available[slot]) {
+				continue;
+			}
+			if (slot < rings.numberOfPills) {
+				listPosition[slot] = activePillCount;
+				activePills[activePillCount++] = slot;
+			} else {
+				listPosition[slot] = activePowerPillCount;
+				activePowerPills[activePowerPillCount++] = slot;
+			}
+		}
+	}
+
+	private void eaten(int slot) {
+		if (!available[slot]) {
+			return;
+		}
+		available[slot] = false;
+		if (slot < rings.numberOfPills) {
+			int last = activePills[--activePillCount];
+			activePills[listPosition[slot]] = last;
+			listPosition[last] = listPosition[slot];
+		} else {
+			int last = activePowerPills[--activePowerPillCount];
+			activePowerPills[listPosition[slot]] = last;
+			listPosition[last] = listPosition[slot];
+		}
+	}
+}
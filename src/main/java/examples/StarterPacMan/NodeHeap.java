@@ -0,0 +1,147 @@
+package examples.StarterPacMan;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of maze nodes by long key for graph searches, in reusable primitive arrays. Every node is in the
+ * heap at most once: pushing a node that is already there moves it to its new key, so there are no stale duplicates
+ * to skip, and it can be removed again from anywhere.
+ */
+final class NodeHeap {
+	private int[] heap = new int[0];
+	private long[] keys = new long[0];
+	private int[] position = new int[0]; // Index in heap per node, -1 when the node is not in the heap
+	private int size;
+
+	/**
+	 * Empties the heap and makes room for nodes 0 to nodes - 1. Only touches the nodes it held.
+	 */
+	void reset(int nodes) {
+		if (position.length != nodes) {
+			heap = new int[nodes];
+			keys = new long[nodes];
+			position = new int[nodes];
+			Arrays.fill(position, -1);
+		} else {
+			for (int i = 0; i < size; i++) {
+				position[heap[i]] = -1;
+			}
+		}
+		size = 0;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	boolean contains(int node) {
+		return position[node] != -1;
+	}
+
+	/**
+	 * The smallest key, Long.MAX_VALUE if the heap is empty.
+	 */
+	long topKey() {
+		return size == 0 ? Long.MAX_VALUE : keys[0];
+	}
+
+	int top() {
+		return heap[0];
+	}
+
+	/**
+	 * Adds the node, or changes its key if it is already in the heap.
+	 */
+	void push(int node, long key) {
+		int i = position[node];
+		if (i == -1) {
+			i = size++;
+			heap[i] = node;
+			position[node] = i;
+		} else if (key > keys[i]) {
+			keys[i] = key;
+			down(i);
+			return;
+		}
+		keys[i] = key;
+		up(i);
+	}
+
+	/**
+	 * Removes and returns the node with the smallest key.
+	 */
+	int pop() {
+		int node = heap[0];
+		removeAt(0);
+		return node;
+	}
+
+	void remove(int node) {
+		int i = position[node];
+		if (i != -1) {
+			removeAt(i);
+		}
+	}
+
+	private void removeAt(int i) {
+		position[heap[i]] = -1;
+		size--;
+		if (i == size) {
+			return;
+		}
+		heap[i] = heap[size];
+		keys[i] = keys[size];
+		position[heap[i]] = i;
+		if (i > 0 && keys[i] < keys[(i - 1) >>> 1]) {
+			up(i);
+		} else {
+			down(i);
+		}
+	}
+
+	private void up(int i) {
+		int node = heap[i];
+		long key = keys[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (keys[parent] <= key) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		place(node, key, i);
+	}
+
+	private void down(int i) {
+		int node = heap[i];
+		long key = keys[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && keys[child + 1] < keys[child]) {
+				child++;
+			}
+			if (key <= keys[child]) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		place(node, key, i);
+	}
+
+	private void move(int from, int to) {
+		heap[to] = heap[from];
+		keys[to] = keys[from];
+		position[heap[to]] = to;
+	}
+
+	private void place(int node, long key, int i) {
+		heap[i] = node;
+		keys[i] = key;
+		position[node] = i;
+	}
+}
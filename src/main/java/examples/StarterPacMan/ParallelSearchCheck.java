@@ -0,0 +1,59 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.EnumMap;
+import java.util.Random;
+
+/**
+ * Differential check of root-parallel {@link TreeSearchPacMan} against the sequential one: plays games with random
+ * legal moves, hands every tick to both and compares the best path value and safety they found for every starting
+ * move. Both search without a deadline, so they must agree exactly.
+ * <p>
+ * Arguments: [ticks] [threads] [seed]
+ */
+public class ParallelSearchCheck {
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final int MISMATCHES_SHOWN = 10;
+
+	public static void main(String[] args) {
+		int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+		Random random = new Random(seed);
+
+		TreeSearchPacMan sequential = new TreeSearchPacMan(false, 0, 1);
+		TreeSearchPacMan parallel = new TreeSearchPacMan(false, 0, threads);
+		EnumMap<GHOST, MOVE> ghostMoves = new EnumMap<>(GHOST.class);
+		Game game = new Game(seed);
+		int mismatches = 0;
+		int games = 1;
+
+		for (int tick = 0; tick < ticks; tick++) {
+			if (game.gameOver()) {
+				game = new Game(seed + games++);
+			}
+			sequential.getMove(game.copy(), -1);
+			parallel.getMove(game.copy(), -1);
+
+			StringBuilder difference = new StringBuilder();
+			for (MOVE move : MOVES) {
+				if (sequential.getBranchValue(move) != parallel.getBranchValue(move)
+						|| sequential.isBranchSafe(move) != parallel.isBranchSafe(move)) {
+					difference.append(move).append(' ').append(sequential.getBranchValue(move)).append('/')
+							.append(sequential.isBranchSafe(move)).append(" vs ").append(parallel.getBranchValue(move))
+							.append('/').append(parallel.isBranchSafe(move)).append("; ");
+				}
+			}
+			if (difference.length() > 0 && mismatches++ < MISMATCHES_SHOWN) {
+				System.out.println("Tick " + tick + ": " + difference);
+			}
+
+			game.advanceGame(RandomPlay.randomMove(game, random, ghostMoves), ghostMoves);
+		}
+
+		System.out.println(ticks + " ticks in " + games + " games, " + threads + " threads, " + mismatches + " mismatches");
+	}
+}
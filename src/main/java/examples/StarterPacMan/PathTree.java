@@ -0,0 +1,335 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.Arrays;
+
+/**
+ * All paths of {@link TreeSearchPacMan} that start with one move from Ms Pac-Man's node, kept in flat primitive
+ * arrays instead of Segment and Path objects. A segment is one {@link JunctionGraph} edge, cut short at the end of the
+ * path; segment i follows edge[i] for limit[i] nodes after depth[i] nodes of the path, and its parent is parent[i] (-1
+ * for the first segment). Parents are always stored before their children and every leaf segment ends one path. The
+ * arrays only ever grow, so once they are big enough building a tree allocates nothing.
+ * <p>
+ * The shape of the tree only depends on the maze, so it is kept between ticks. When Ms Pac-Man has moved one node
+ * along the first edge, the tree is re-rooted one node further and only its frontier grows; when she has moved one
+ * node the other way, which is what the tree of the move back sees every tick, the first edge gets that node back
+ * and the segments pushed past the path length are pruned. A shorter path length is pruned the same way.
+ * <p>
+ * Scores are recomputed on every tick, in one pass over all segments: ghosts move and Ms Pac-Man's distance to every
+ * segment changes by one, so every segment's ghost and safety terms change with them. That pass is O(segments), but
+ * each segment only costs a few array lookups (pill counts come from {@link PillTracker}, arrivals from
+ * {@link GhostArrivalMap}), and only segments that start within the safety horizon check their nodes.
+ */
+final class PathTree {
+	private static final int UNSAFE_PENALTY = 10;
+	private static final int POWER_PILL_VALUE = 5;
+
+	final MOVE move;
+
+	private JunctionGraph graph;
+	private int maxPathLength;
+
+	int size;
+	int[] parent = new int[256];
+	int[] edge = new int[256];
+	int[] depth = new int[256];
+	int[] limit = new int[256];
+	boolean[] leaf = new boolean[256];
+
+	// Scores, recomputed on every tick; pills and power pills are counted from the start of the path
+	int[] pills = new int[256];
+	int[] powerPills = new int[256];
+	int[] ghosts = new int[256];
+	int[] edibleGhosts = new int[256];
+	int[] value = new int[256];
+	boolean[] dangerous = new boolean[256];
+	boolean[] dangerousChild = new boolean[256];
+	boolean[] unsafe = new boolean[256];
+
+	// Scratch for the scoring pass: edible ghosts seen so far and the path value without the pills
+	private int[] edibleSoFar = new int[256];
+	private int[] partialValue = new int[256];
+
+	// Scratch for pruning: the new index of every segment, -1 if it is dropped
+	private int[] newIndex = new int[256];
+
+	// Results of the last search
+	int paths;
+	int bestValue;
+	boolean anySafe;
+
+	PathTree(MOVE move) {
+		this.move = move;
+	}
+
+	/**
+	 * Finds every path of maxPathLength nodes that starts with this tree's move from pacmanNode, reusing the tree of
+	 * the previous tick when Ms Pac-Man has only moved one node into it, and scores them.
+	 *
+	 * @param ghostNodes    node of every ghost, -1 if unknown
+	 * @param ghostEdible   whether every ghost is edible
+	 * @param arrivals      ghost arrival times of this tick, including the graph's edges
+	 * @param safetyHorizon number of ticks ahead in which a ghost getting somewhere first makes a segment unsafe
+	 * @param abortAt       time in milliseconds at which to give up and return false, leaving the scores unusable
+	 */
+	boolean search(Game game, JunctionGraph graph, PillTracker pillTracker, int pacmanNode, int maxPathLength,
+			int[] ghostNodes, boolean[] ghostEdible, GhostArrivalMap arrivals, int safetyHorizon, long abortAt) {
+		int root = JunctionGraph.key(game.getNeighbour(pacmanNode, move), move.ordinal());
+
+		if (!reroot(graph, root, maxPathLength)) {
+			this.graph = graph;
+			size = 0;
+			newSegment(-1, root, 0);
+		}
+		this.maxPathLength = maxPathLength;
+		if (!grow(abortAt)) {
+			size = 0;
+			return false;
+		}
+		return score(pillTracker, ghostNodes, ghostEdible, arrivals, safetyHorizon, abortAt);
+	}
+
+	/**
+	 * Turns last tick's tree into the tree of the given root, if Ms Pac-Man has stayed, or moved one node along its
+	 * first edge either way, and cuts it down to maxPathLength.
+	 */
+	private boolean reroot(JunctionGraph graph, int root, int maxPathLength) {
+		if (size == 0 || graph != this.graph) {
+			return false;
+		}
+		int previousRoot = edge[0];
+		boolean movedBack = false;
+		if (previousRoot == root) {
+			// Same root
+		} else if (graph.length(previousRoot) >= 2
+				&& JunctionGraph.key(graph.node(previousRoot, 1), move.ordinal()) == root) {
+			// One node forward: the first edge loses its first node
+			edge[0] = root;
+			for (int i = 1; i < size; i++) {
+				depth[i]--;
+			}
+		} else if (graph.length(root) >= 2 && graph.node(root, 1) == JunctionGraph.startNode(previousRoot)) {
+			// One node back on a straight run: the first edge gets that node back
+			edge[0] = root;
+			for (int i = 1; i < size; i++) {
+				depth[i]++;
+			}
+			movedBack = true;
+		} else if (graph.length(root) == 1 && hasChild(graph, root, previousRoot)) {
+			// One node back onto a junction or corner: a new first segment of one node, whose children are the old
+			// tree and new leaves for the other ways out
+			insertRoot(graph, root, previousRoot);
+			movedBack = true;
+		} else {
+			return false;
+		}
+
+		if (movedBack || maxPathLength < this.maxPathLength) {
+			prune(maxPathLength);
+		}
+		return true;
+	}
+
+	private static boolean hasChild(JunctionGraph graph, int key, int child) {
+		for (int i = 0; i < graph.childCount(key); i++) {
+			if (graph.child(key, i) == child) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void insertRoot(JunctionGraph graph, int root, int previousRoot) {
+		if (size == parent.length) {
+			resize(size * 2);
+		}
+		System.arraycopy(parent, 0, parent, 1, size);
+		System.arraycopy(edge, 0, edge, 1, size);
+		System.arraycopy(depth, 0, depth, 1, size);
+		System.arraycopy(leaf, 0, leaf, 1, size);
+		size++;
+		for (int i = 1; i < size; i++) {
+			parent[i]++;
+			depth[i]++;
+		}
+		parent[0] = -1;
+		edge[0] = root;
+		depth[0] = 0;
+		leaf[0] = false;
+		for (int child = 0; child < graph.childCount(root); child++) {
+			int key = graph.child(root, child);
+			if (key != previousRoot) {
+				newSegment(0, key, 1);
+			}
+		}
+	}
+
+	/**
+	 * Drops the segments that start at or beyond maxPathLength, keeping the order of the others, and makes the
+	 * segments that lost all their children leaves again.
+	 */
+	private void prune(int maxPathLength) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (depth[i] >= maxPathLength) {
+				newIndex[i] = -1;
+				continue;
+			}
+			newIndex[i] = kept;
+			parent[kept] = parent[i] == -1 ? -1 : newIndex[parent[i]];
+			edge[kept] = edge[i];
+			depth[kept] = depth[i];
+			leaf[kept] = true;
+			kept++;
+		}
+		size = kept;
+		for (int i = 1; i < size; i++) {
+			leaf[parent[i]] = false;
+		}
+	}
+
+	/**
+	 * Extends every leaf that is shorter than maxPathLength, adding the segments of the edges that continue it.
+	 * Returns false if abortAt passed first.
+	 */
+	private boolean grow(long abortAt) {
+		for (int i = 0; i < size; i++) {
+			if ((i & 1023) == 1023 && System.currentTimeMillis() >= abortAt) {
+				return false;
+			}
+
+			int length = graph.length(edge[i]);
+			limit[i] = Math.min(length, maxPathLength - depth[i]);
+
+			int children = graph.childCount(edge[i]);
+			if (!leaf[i] || depth[i] + length >= maxPathLength || children == 0) {
+				continue;
+			}
+
+			// The edge ends at a junction or a corner, create a new segment per move
+			leaf[i] = false;
+			for (int child = 0; child < children; child++) {
+				newSegment(i, graph.child(edge[i], child), depth[i] + length);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Scores every path the way the original Path objects did: the pills of the whole path, plus 5 for the power
+	 * pills seen up to every segment, plus the edible ghosts seen so far for every segment containing a ghost, minus
+	 * 10 for every unsafe segment. A segment is unsafe if a ghost can get to it, or to one of its children, before
+	 * Ms Pac-Man, or if one of its ancestors is unsafe. Returns false if abortAt passed first.
+	 */
+	private boolean score(PillTracker pillTracker, int[] ghostNodes, boolean[] ghostEdible, GhostArrivalMap arrivals, int safetyHorizon, long abortAt) {
+		for (int i = 0; i < size; i++) {
+			dangerousChild[i] = false;
+		}
+		for (int i = 0; i < size; i++) {
+			if ((i & 1023) == 1023 && System.currentTimeMillis() >= abortAt) {
+				return false;
+			}
+			countEdge(pillTracker, i, ghostNodes, ghostEdible, arrivals, safetyHorizon);
+		}
+
+		paths = 0;
+		bestValue = Integer.MIN_VALUE;
+		anySafe = false;
+
+		for (int i = 0; i < size; i++) {
+			int p = parent[i];
+			if (p != -1) {
+				pills[i] += pills[p];
+				powerPills[i] += powerPills[p];
+			}
+			unsafe[i] = dangerous[i] || dangerousChild[i] || (p != -1 && unsafe[p]);
+			edibleSoFar[i] = (p != -1 ? edibleSoFar[p] : 0) + edibleGhosts[i];
+			partialValue[i] = (p != -1 ? partialValue[p] : 0)
+					+ (ghosts[i] > 0 ? edibleSoFar[i] : 0)
+					+ (unsafe[i] ? -UNSAFE_PENALTY : 0)
+					+ powerPills[i] * POWER_PILL_VALUE;
+
+			if (leaf[i]) {
+				value[i] = pills[i] + partialValue[i];
+				paths++;
+				if (value[i] > bestValue) {
+					bestValue = value[i];
+				}
+				if (!unsafe[i]) {
+					anySafe = true;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Counts the pills, power pills and ghosts on the segment itself and checks whether it is safe.
+	 */
+	private void countEdge(PillTracker pillTracker, int segment, int[] ghostNodes, boolean[] ghostEdible, GhostArrivalMap arrivals, int safetyHorizon) {
+		int key = edge[segment];
+		int counts = pillTracker.count(graph, key, limit[segment]);
+		pills[segment] = counts & 0xFFFF;
+		powerPills[segment] = counts >>> 16;
+		ghosts[segment] = 0;
+		edibleGhosts[segment] = 0;
+
+		// Segment contains ghost(s)
+		for (int ghost = 0; ghost < ghostNodes.length; ghost++) {
+			int offset = graph.offsetOf(key, ghostNodes[ghost]);
+			if (offset != -1 && offset < limit[segment]) {
+				ghosts[segment]++;
+				if (ghostEdible[ghost]) {
+					edibleGhosts[segment]++;
+				}
+			}
+		}
+
+		// Not safe if a ghost can get to one of its nodes before Ms Pac-Man does, within the safety horizon
+		int checked = Math.min(limit[segment], safetyHorizon - depth[segment]);
+		dangerous[segment] = checked > 0 && !arrivals.isSafe(graph, key, checked, depth[segment] + 1);
+		if (dangerous[segment] && parent[segment] != -1) {
+			dangerousChild[parent[segment]] = true;
+		}
+	}
+
+	int startNode(int segment) {
+		return JunctionGraph.startNode(edge[segment]);
+	}
+
+	int endNode(int segment) {
+		return graph.node(edge[segment], limit[segment] - 1);
+	}
+
+	private void newSegment(int parentSegment, int edgeKey, int nodesBefore) {
+		if (size == parent.length) {
+			resize(size * 2);
+		}
+		int segment = size++;
+		parent[segment] = parentSegment;
+		edge[segment] = edgeKey;
+		depth[segment] = nodesBefore;
+		leaf[segment] = true;
+	}
+
+	private void resize(int capacity) {
+		parent = Arrays.copyOf(parent, capacity);
+		edge = Arrays.copyOf(edge, capacity);
+		depth = Arrays.copyOf(depth, capacity);
+		limit = Arrays.copyOf(limit, capacity);
+		leaf = Arrays.copyOf(leaf, capacity);
+		pills = Arrays.copyOf(pills, capacity);
+		powerPills = Arrays.copyOf(powerPills, capacity);
+		ghosts = Arrays.copyOf(ghosts, capacity);
+		edibleGhosts = Arrays.copyOf(edibleGhosts, capacity);
+		value = Arrays.copyOf(value, capacity);
+		dangerous = Arrays.copyOf(dangerous, capacity);
+		dangerousChild = Arrays.copyOf(dangerousChild, capacity);
+		unsafe = Arrays.copyOf(unsafe, capacity);
+		edibleSoFar = Arrays.copyOf(edibleSoFar, capacity);
+		partialValue = Arrays.copyOf(partialValue, capacity);
+		newIndex = Arrays.copyOf(newIndex, capacity);
+	}
+}
@@ -0,0 +1,444 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+import pacman.game.internal.Maze;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plans the order in which to clear the remaining pills instead of always chasing the nearest one, and answers which
+ * node to head for next.
+ * <p>
+ * Pills are grouped by corridor, the run of nodes between two junctions: a corridor's remaining pills are cleared in
+ * one pass, entering at its first or last remaining pill and leaving at the other. Ordering the corridors is a small
+ * travelling salesman problem on their end points; it is solved exactly by dynamic programming over subsets when
+ * there are at most exactClusters of them, as in the endgame, and by nearest neighbour and 2-opt otherwise.
+ * <p>
+ * The plan is kept while it is followed, and eaten pills only shorten it. It is made again when there is a new level,
+ * when the next target becomes unsafe because of a ghost, or when Ms Pac-Man has moved away from her target.
+ */
+final class PillTourPlanner {
+	private static final Map<Maze, Corridors> CORRIDORS = new ConcurrentHashMap<>();
+	private static final int UNSAFE_PENALTY = 1000;
+
+	int exactClusters = 10; // Most corridors to order exactly
+	int maxTwoOptPasses = 20;
+
+	/**
+	 * The corridors of a maze and the pills and power pills on each, in order along it.
+	 */
+	private static final class Corridors {
+		final int count;
+		final int[] corridorOf; // Per node
+		final int[] positionOf; // Per node, along its corridor
+		final int[] pillStart; // Per corridor, into the arrays below
+		final int[] pillNode;
+		final int[] pillIndex; // Pill index, or -1 - power pill index for power pills
+
+		Corridors(Game game) {
+			int nodes = game.getNumberOfNodes();
+			corridorOf = new int[nodes];
+			positionOf = new int[nodes];
+			Arrays.fill(corridorOf, -1);
+
+			// Junctions are corridors of their own, every other node is walked to both ends of its corridor
+			int[] order = new int[nodes];
+			int[] start = new int[nodes + 1];
+			int corridors = 0;
+			int size = 0;
+			for (int node = 0; node < nodes; node++) {
+				if (corridorOf[node] != -1 || game.getPossibleMoves(node).length == 0) {
+					continue;
+				}
+				start[corridors] = size;
+				if (game.isJunction(node)) {
+					order[size++] = node;
+					corridorOf[node] = corridors;
+				} else {
+					// Back up to one end, then walk to the other
+					int end = node;
+					MOVE away = MOVE.NEUTRAL;
+					MOVE[] moves = game.getPossibleMoves(node);
+					MOVE back = moves[0];
+					for (int steps = 0; steps < nodes; steps++) {
+						int next = game.getNeighbour(end, back);
+						if (next == -1 || game.isJunction(next) || next == node) {
+							break;
+						}
+						MOVE[] onward = game.getPossibleMoves(next, back);
+						end = next;
+						if (onward.length != 1) {
+							break;
+						}
+						back = onward[0];
+					}
+					away = back.opposite();
+					int current = end;
+					while (current != -1 && !game.isJunction(current) && corridorOf[current] == -1) {
+						corridorOf[current] = corridors;
+						order[size++] = current;
+						MOVE[] onward = game.getPossibleMoves(current, away);
+						if (onward.length != 1) {
+							break;
+						}
+						away = onward[0];
+						current = game.getNeighbour(current, away);
+					}
+				}
+				corridors++;
+			}
+			start[corridors] = size;
+			count = corridors;
+
+			int pills = 0;
+			for (int i = 0; i < size; i++) {
+				positionOf[order[i]] = i;
+				if (game.getPillIndex(order[i]) != -1 || game.getPowerPillIndex(order[i]) != -1) {
+					pills++;
+				}
+			}
+			pillStart = new int[corridors + 1];
+			pillNode = new int[pills];
+			pillIndex = new int[pills];
+			int pill = 0;
+			for (int corridor = 0; corridor < corridors; corridor++) {
+				pillStart[corridor] = pill;
+				for (int i = start[corridor]; i < start[corridor + 1]; i++) {
+					int node = order[i];
+					if (game.getPillIndex(node) != -1) {
+						pillNode[pill] = node;
+						pillIndex[pill++] = game.getPillIndex(node);
+					} else if (game.getPowerPillIndex(node) != -1) {
+						pillNode[pill] = node;
+						pillIndex[pill++] = -1 - game.getPowerPillIndex(node);
+					}
+				}
+			}
+			pillStart[corridors] = pill;
+		}
+	}
+
+	private Game game;
+	private Corridors corridors;
+	private Maze maze;
+	private int level = -1;
+
+	// The plan: corridors in order, and whether each is entered at its first remaining pill
+	private int[] tour = new int[0];
+	private boolean[] forward = new boolean[0];
+	private int tourLength;
+	private int head;
+	private int lastTarget = -1;
+	private int lastDistance;
+	private int plans;
+
+	// Scratch for planning: per cluster its corridor, end points and the length between them
+	private int[] clusterCorridor = new int[0];
+	private int[] endA = new int[0];
+	private int[] endB = new int[0];
+	private int[] inside = new int[0];
+	private int[] firstLeg = new int[0]; // Per end point (cluster * 2 + end), from the start, with penalties
+	private int[] between = new int[0]; // Distances between end points, for dynamic programming
+	private int[] dp = new int[0];
+	private int[] from = new int[0];
+	private int[] entry = new int[0];
+	private int[] exit = new int[0];
+
+	/**
+	 * The node to head for next, -1 once no pills are left.
+	 *
+	 * @param arrivals      ghost arrivals for this tick, to notice a target a ghost will get to first
+	 * @param safetyHorizon ticks ahead in which arrivals count
+	 */
+	int target(Game game, GhostArrivalMap arrivals, int safetyHorizon) {
+		this.game = game;
+		int pacman = game.getPacmanCurrentNodeIndex();
+		if (game.getCurrentMaze() != maze || game.getCurrentLevel() != level) {
+			maze = game.getCurrentMaze();
+			level = game.getCurrentLevel();
+			corridors = CORRIDORS.computeIfAbsent(maze, key -> new Corridors(game));
+			tourLength = 0;
+			head = 0;
+		}
+
+		int target = nextTarget();
+		int distance = target == -1 ? 0 : game.getShortestPathDistance(pacman, target);
+		if (target == -1 || !isSafe(arrivals, safetyHorizon, target, distance) || (target == lastTarget && distance > lastDistance)) {
+			plan(pacman, arrivals, safetyHorizon);
+			target = nextTarget();
+			distance = target == -1 ? 0 : game.getShortestPathDistance(pacman, target);
+		}
+		lastTarget = target;
+		lastDistance = distance;
+		return target;
+	}
+
+	/**
+	 * Plans made so far.
+	 */
+	int getPlans() {
+		return plans;
+	}
+
+	/**
+	 * Corridors with pills left in the current plan.
+	 */
+	int getRemainingCorridors() {
+		return tourLength - head;
+	}
+
+	private int nextTarget() {
+		while (head < tourLength) {
+			int corridor = tour[head];
+			int first = firstAvailable(corridor);
+			if (first != -1) {
+				return forward[head] ? first : lastAvailable(corridor);
+			}
+			head++;
+		}
+		return -1;
+	}
+
+	private boolean isSafe(GhostArrivalMap arrivals, int safetyHorizon, int node, int distance) {
+		return distance > safetyHorizon || arrivals.isSafe(node, distance);
+	}
+
+	private int firstAvailable(int corridor) {
+		for (int pill = corridors.pillStart[corridor]; pill < corridors.pillStart[corridor + 1]; pill++) {
+			if (isAvailable(pill)) {
+				return corridors.pillNode[pill];
+			}
+		}
+		return -1;
+	}
+
+	private int lastAvailable(int corridor) {
+		for (int pill = corridors.pillStart[corridor + 1] - 1; pill >= corridors.pillStart[corridor]; pill--) {
+			if (isAvailable(pill)) {
+				return corridors.pillNode[pill];
+			}
+		}
+		return -1;
+	}
+
+	private boolean isAvailable(int pill) {
+		int index = corridors.pillIndex[pill];
+		Boolean available = index >= 0 ? game.isPillStillAvailable(index) : game.isPowerPillStillAvailable(-1 - index);
+		return !Boolean.FALSE.equals(available);
+	}
+
+	private void plan(int start, GhostArrivalMap arrivals, int safetyHorizon) {
+		plans++;
+		if (clusterCorridor.length < corridors.count) {
+			int capacity = corridors.count;
+			clusterCorridor = new int[capacity];
+			endA = new int[capacity];
+			endB = new int[capacity];
+			inside = new int[capacity];
+			firstLeg = new int[capacity * 2];
+			entry = new int[capacity];
+			exit = new int[capacity];
+			tour = new int[capacity];
+			forward = new boolean[capacity];
+		}
+
+		int clusters = 0;
+		for (int corridor = 0; corridor < corridors.count; corridor++) {
+			int first = firstAvailable(corridor);
+			if (first == -1) {
+				continue;
+			}
+			int last = lastAvailable(corridor);
+			clusterCorridor[clusters] = corridor;
+			endA[clusters] = first;
+			endB[clusters] = last;
+			inside[clusters] = Math.abs(corridors.positionOf[last] - corridors.positionOf[first]);
+			for (int end = 0; end < 2; end++) {
+				int node = end == 0 ? first : last;
+				int distance = game.getShortestPathDistance(start, node);
+				firstLeg[clusters * 2 + end] = distance + (isSafe(arrivals, safetyHorizon, node, distance) ? 0 : UNSAFE_PENALTY);
+			}
+			clusters++;
+		}
+
+		if (clusters <= exactClusters) {
+			planExactly(clusters);
+		} else {
+			planHeuristically(clusters);
+		}
+		head = 0;
+		tourLength = clusters;
+	}
+
+	private int end(int cluster, boolean first) {
+		return first ? endA[cluster] : endB[cluster];
+	}
+
+	/**
+	 * Dynamic programming over subsets: the cheapest way to have cleared a set of clusters ending with a given one,
+	 * left by a given end.
+	 */
+	private void planExactly(int clusters) {
+		if (clusters == 0) {
+			return;
+		}
+		int states = 2 * clusters;
+		int subsets = 1 << clusters;
+		if (dp.length < subsets * states) {
+			dp = new int[subsets * states];
+			from = new int[subsets * states];
+		}
+		Arrays.fill(dp, 0, subsets * states, Integer.MAX_VALUE);
+		if (between.length < states * states) {
+			between = new int[states * states];
+		}
+		for (int a = 0; a < states; a++) {
+			for (int b = 0; b < states; b++) {
+				between[a * states + b] = game.getShortestPathDistance(end(a >> 1, (a & 1) == 0), end(b >> 1, (b & 1) == 0));
+			}
+		}
+
+		// State cluster * 2 + end: the cluster was entered at that end (0 for its first pill) and left at the other
+		for (int state = 0; state < states; state++) {
+			int cluster = state >> 1;
+			dp[(1 << cluster) * states + state] = firstLeg[state] + inside[cluster];
+			from[(1 << cluster) * states + state] = -1;
+		}
+		for (int subset = 1; subset < subsets; subset++) {
+			for (int state = 0; state < states; state++) {
+				int cost = dp[subset * states + state];
+				if (cost == Integer.MAX_VALUE) {
+					continue;
+				}
+				int left = state ^ 1; // The end it was left at
+				for (int next = 0; next < states; next++) {
+					int cluster = next >> 1;
+					if ((subset & 1 << cluster) != 0) {
+						continue;
+					}
+					int nextSubset = subset | 1 << cluster;
+					int nextCost = cost + between[left * states + next] + inside[cluster];
+					if (nextCost < dp[nextSubset * states + next]) {
+						dp[nextSubset * states + next] = nextCost;
+						from[nextSubset * states + next] = state;
+					}
+				}
+			}
+		}
+
+		int subset = subsets - 1;
+		int best = 0;
+		for (int state = 1; state < states; state++) {
+			if (dp[subset * states + state] < dp[subset * states + best]) {
+				best = state;
+			}
+		}
+		for (int i = clusters - 1; i >= 0; i--) {
+			tour[i] = clusterCorridor[best >> 1];
+			forward[i] = (best & 1) == 0;
+			int previous = from[subset * states + best];
+			subset &= ~(1 << (best >> 1));
+			best = previous;
+		}
+	}
+
+	/**
+	 * Nearest neighbour from Ms Pac-Man, then 2-opt: reversing a stretch of the tour, which also swaps the ends each
+	 * of its clusters is entered at, as long as that makes the tour shorter.
+	 */
+	private void planHeuristically(int clusters) {
+		int[] cluster = clusterCorridor; // Reordered in place into tour order
+		int current = -1;
+		for (int i = 0; i < clusters; i++) {
+			int best = -1;
+			boolean bestFirst = true;
+			int bestDistance = Integer.MAX_VALUE;
+			for (int j = i; j < clusters; j++) {
+				for (int end = 0; end < 2; end++) {
+					int node = end == 0 ? endA[j] : endB[j];
+					int distance = current == -1 ? firstLeg[j * 2 + end] : game.getShortestPathDistance(current, node);
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						best = j;
+						bestFirst = end == 0;
+					}
+				}
+			}
+			swap(i, best);
+			entry[i] = bestFirst ? endA[i] : endB[i];
+			exit[i] = bestFirst ? endB[i] : endA[i];
+			current = exit[i];
+		}
+
+		for (int pass = 0; pass < maxTwoOptPasses; pass++) {
+			boolean improved = false;
+			for (int i = 0; i < clusters - 1; i++) {
+				for (int j = i + 1; j < clusters; j++) {
+					int before = i == 0 ? firstLegOf(i, entry[i]) : game.getShortestPathDistance(exit[i - 1], entry[i]);
+					int after = i == 0 ? firstLegOf(j, exit[j]) : game.getShortestPathDistance(exit[i - 1], exit[j]);
+					if (j + 1 < clusters) {
+						before += game.getShortestPathDistance(exit[j], entry[j + 1]);
+						after += game.getShortestPathDistance(entry[i], entry[j + 1]);
+					}
+					if (after < before) {
+						reverse(i, j);
+						improved = true;
+					}
+				}
+			}
+			if (!improved) {
+				break;
+			}
+		}
+
+		for (int i = 0; i < clusters; i++) {
+			tour[i] = cluster[i];
+			forward[i] = entry[i] == endA[i];
+		}
+	}
+
+	// The first leg to the end of the cluster at position i that is the given node
+	private int firstLegOf(int i, int node) {
+		return firstLeg[i * 2 + (node == endA[i] ? 0 : 1)];
+	}
+
+	private void swap(int i, int j) {
+		int corridor = clusterCorridor[i];
+		clusterCorridor[i] = clusterCorridor[j];
+		clusterCorridor[j] = corridor;
+		int a = endA[i];
+		endA[i] = endA[j];
+		endA[j] = a;
+		int b = endB[i];
+		endB[i] = endB[j];
+		endB[j] = b;
+		int length = inside[i];
+		inside[i] = inside[j];
+		inside[j] = length;
+		for (int end = 0; end < 2; end++) {
+			int leg = firstLeg[i * 2 + end];
+			firstLeg[i * 2 + end] = firstLeg[j * 2 + end];
+			firstLeg[j * 2 + end] = leg;
+		}
+	}
+
+	private void reverse(int i, int j) {
+		for (; i < j; i++, j--) {
+			swap(i, j);
+			int in = entry[i];
+			entry[i] = exit[j];
+			exit[j] = in;
+			int out = exit[i];
+			exit[i] = entry[j];
+			entry[j] = out;
+		}
+		if (i == j) {
+			int in = entry[i];
+			entry[i] = exit[i];
+			exit[i] = in;
+		}
+	}
+}
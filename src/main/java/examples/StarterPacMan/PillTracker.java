@@ -0,0 +1,115 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+/**
+ * Number of pills and power pills still available on every {@link JunctionGraph} edge, kept up to date as Ms Pac-Man
+ * eats them instead of being recounted on every tick. Since an edge shares its tail with the edges entered further
+ * along it, the pills on the first nodes of an edge are the difference of two counts.
+ */
+final class PillTracker {
+	private static final MOVE[] MOVES = MOVE.values();
+	private static final int DIRECTIONS = 4;
+
+	private JunctionGraph graph;
+	private int level = -1;
+	private int activePills;
+	private int activePowerPills;
+	private boolean[] pillAvailable;
+	private boolean[] powerPillAvailable;
+	private int[] pills;
+	private int[] powerPills;
+
+	/**
+	 * Brings the counts in line with the game. Pills are only ever eaten where Ms Pac-Man stands, so normally only her
+	 * node is looked at; anything else, like a new level or a skipped tick, recounts every edge.
+	 */
+	void update(Game game, JunctionGraph graph) {
+		if (graph != this.graph || game.getCurrentLevel() != level) {
+			reset(game, graph);
+			return;
+		}
+
+		int node = game.getPacmanCurrentNodeIndex();
+		int pillIndex = game.getPillIndex(node);
+		int powerPillIndex = game.getPowerPillIndex(node);
+		if (pillIndex != -1 && pillAvailable[pillIndex] && !game.isPillStillAvailable(pillIndex)) {
+			pillAvailable[pillIndex] = false;
+			activePills--;
+			eaten(game, node, pills);
+		} else if (powerPillIndex != -1 && powerPillAvailable[powerPillIndex] && !game.isPowerPillStillAvailable(powerPillIndex)) {
+			powerPillAvailable[powerPillIndex] = false;
+			activePowerPills--;
+			eaten(game, node, powerPills);
+		}
+
+		if (activePills != game.getNumberOfActivePills() || activePowerPills != game.getNumberOfActivePowerPills()) {
+			reset(game, graph);
+		}
+	}
+
+	/**
+	 * Pills and power pills still available on the first limit nodes of the edge, packed as pills | powerPills << 16.
+	 */
+	int count(JunctionGraph graph, int key, int limit) {
+		int pillCount = pills[key];
+		int powerPillCount = powerPills[key];
+		if (limit < graph.length(key)) {
+			int tail = JunctionGraph.key(graph.node(key, limit), JunctionGraph.direction(key));
+			pillCount -= pills[tail];
+			powerPillCount -= powerPills[tail];
+		}
+		return pillCount | powerPillCount << 16;
+	}
+
+	private void reset(Game game, JunctionGraph graph) {
+		this.graph = graph;
+		level = game.getCurrentLevel();
+
+		int edges = game.getNumberOfNodes() * DIRECTIONS;
+		if (pills == null || pills.length != edges) {
+			pills = new int[edges];
+			powerPills = new int[edges];
+		}
+		for (int key = 0; key < edges; key++) {
+			int counts = graph.countPills(game, key, graph.length(key));
+			pills[key] = counts & 0xFFFF;
+			powerPills[key] = counts >>> 16;
+		}
+
+		pillAvailable = available(game, pillAvailable, game.getNumberOfPills(), false);
+		powerPillAvailable = available(game, powerPillAvailable, game.getNumberOfPowerPills(), true);
+		activePills = game.getNumberOfActivePills();
+		activePowerPills = game.getNumberOfActivePowerPills();
+	}
+
+	private static boolean[] available(Game game, boolean[] available, int count, boolean powerPills) {
+		if (available == null || available.length != count) {
+			available = new boolean[count];
+		}
+		for (int i = 0; i < count; i++) {
+			available[i] = powerPills ? game.isPowerPillStillAvailable(i) : game.isPillStillAvailable(i);
+		}
+		return available;
+	}
+
+	/**
+	 * Takes the pill at node off every edge passing through it: in each direction, the edge entered at the node and
+	 * those entered before it on the same straight run.
+	 */
+	private void eaten(Game game, int node, int[] counts) {
+		for (int direction = 0; direction < DIRECTIONS; direction++) {
+			MOVE back = MOVES[direction].opposite();
+			int from = node;
+			for (int steps = 0; from != -1 && steps < counts.length; steps++) {
+				int key = JunctionGraph.key(from, direction);
+				if (graph.offsetOf(key, node) == -1) {
+					break;
+				}
+				counts[key]--;
+				from = game.getNeighbour(from, back);
+			}
+		}
+	}
+}
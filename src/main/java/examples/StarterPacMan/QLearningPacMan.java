@@ -2,8 +2,10 @@ package examples.StarterPacMan;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 import pacman.controllers.PacmanController;
@@ -12,11 +14,11 @@ import pacman.game.Constants.MOVE;
 import pacman.game.Constants;
 import pacman.game.Game;
 
-public class QLearningPacMan extends PacmanController {
+public class QLearningPacMan extends PacmanController implements ReadOnlyController {
     private static final int SEED = 0;
-    private static final Random RANDOM = new Random();
-    private static final int STATE_SIZE = MOVE.values().length;
-    private ArrayList<ArrayList<Double>> qTable = new ArrayList<ArrayList<Double>>();
+    private final Random random;
+    private QTableRegistry qTables;
+    private QTable qTable; // The table of the maze being played
     private Game game;
 
     private int pacmanCurrentNodeIndex;
@@ -27,9 +29,18 @@ public class QLearningPacMan extends PacmanController {
     private double discountRate = 0.9;
     public double explorationRate = 1.0;
     public double totalReward = 0;
+    private int episodes; // Training episodes played into the tables, including those of a loaded checkpoint
 
     public QLearningPacMan() {
-        RANDOM.setSeed(SEED);
+        this(null, SEED);
+    }
+
+    /**
+     * Learner that reads and updates the given tables, which may be shared with other learners.
+     */
+    public QLearningPacMan(QTableRegistry qTables, long seed) {
+        this.qTables = qTables == null ? new QTableRegistry() : qTables;
+        this.random = new Random(seed);
     }
 
     @Override
@@ -41,7 +52,7 @@ public class QLearningPacMan extends PacmanController {
         this.initializeQTable();
 
         // Start learning (using epsilon greedy training algorithm)
-        double epsilon = RANDOM.nextDouble();
+        double epsilon = random.nextDouble();
 
         MOVE action = getAction(pacmanCurrentNodeIndex, epsilon);
 
@@ -56,8 +67,7 @@ public class QLearningPacMan extends PacmanController {
         int newState = game.getNeighbour(pacmanCurrentNodeIndex, action);
 
         // Update Q-Table
-        qTable.get(pacmanCurrentNodeIndex).set(mapMoveToIndex(action),
-                getUpdatedValue(pacmanCurrentNodeIndex, action, newState, reward));
+        qTable.update(pacmanCurrentNodeIndex, action, getTargetValue(newState, reward), learningRate);
 
         this.totalReward += reward;
     }
@@ -67,17 +77,17 @@ public class QLearningPacMan extends PacmanController {
         totalReward = 0;
     }
 
+    /**
+     * Writes every maze's table as text, the first maze's to Q-Table-0.txt and so on.
+     */
     public void exportQTable() {
         try {
-            FileWriter myWriter = new FileWriter("Q-Table.txt");
+            for (QTable table : qTables.getTables()) {
+                FileWriter myWriter = new FileWriter(QTableRegistry.fileForMaze("Q-Table.txt", table.getMazeIndex()));
 
-            for (ArrayList<Double> row : qTable) {
-                for (Double value : row) {
-                    myWriter.write(value + " ");
-                }
-                myWriter.write("\n");
+                table.export(myWriter);
+                myWriter.close();
             }
-            myWriter.close();
             System.out.println("Successfully export Q-Table.");
         } catch (IOException e) {
             System.out.println("An error occurred.");
@@ -85,46 +95,89 @@ public class QLearningPacMan extends PacmanController {
         }
     }
 
-    private double getQValue(int state, MOVE action) {
-        return qTable.get(state).get(mapMoveToIndex(action));
+    /**
+     * Saves every maze's table, with the learning parameters, the episodes played and the exploration rate, as a
+     * binary checkpoint (see {@link QTableCheckpoint}) per maze that {@link #loadCheckpoint} resumes from. The file
+     * name gets the maze index added, see {@link QTableRegistry#fileForMaze}.
+     */
+    public void saveCheckpoint(String fileName) throws IOException {
+        List<QTableCheckpoint> checkpoints = checkpoints(episodes, explorationRate);
+        if (checkpoints.isEmpty()) {
+            throw new IllegalStateException("No Q-table to save yet");
+        }
+        for (QTableCheckpoint checkpoint : checkpoints) {
+            checkpoint.write(QTableRegistry.fileForMaze(fileName, checkpoint.mazeIndex));
+        }
     }
 
-    private double computeValueFromQValues(int state) {
-        ArrayList<Double> qValues = new ArrayList<Double>();
-
-        for (MOVE action : game.getPossibleMoves(state)) {
-            qValues.add(getQValue(state, action));
+    /**
+     * Continues from the checkpoints written by {@link #saveCheckpoint}: the table of every maze that has one
+     * replaces this learner's, and the learning parameters, episodes and exploration rate of the furthest trained are
+     * taken over. A table whose number of states does not match its maze is rejected the first time that maze is
+     * played, see {@link QTableRegistry#forGame}.
+     *
+     * @throws IOException if there is no checkpoint for any maze, or one cannot be read
+     */
+    public void loadCheckpoint(String fileName) throws IOException {
+        QTableCheckpoint latest = null;
+        for (int mazeIndex = 0; mazeIndex < Constants.NUM_MAZES; mazeIndex++) {
+            String mazeFile = QTableRegistry.fileForMaze(fileName, mazeIndex);
+            if (!Files.exists(Paths.get(mazeFile))) {
+                continue;
+            }
+            QTableCheckpoint checkpoint = QTableCheckpoint.read(mazeFile);
+            if (checkpoint.mazeIndex != mazeIndex) {
+                throw new IOException(mazeFile + " holds the table of maze " + checkpoint.mazeIndex);
+            }
+            qTables.put(new QTable(checkpoint));
+            if (latest == null || checkpoint.episodes > latest.episodes) {
+                latest = checkpoint;
+            }
         }
-
-        return (qValues.isEmpty()) ? 0.0 : Collections.max(qValues);
+        if (latest == null) {
+            throw new IOException("No Q-table checkpoint for " + fileName);
+        }
+        qTable = null;
+        learningRate = latest.learningRate;
+        discountRate = latest.discountRate;
+        episodes = latest.episodes;
+        explorationRate = latest.explorationRate;
     }
 
-    private MOVE computeActionFromValues(int state) {
-        int bestAction = -1;
-        double maxQValue = 0;
+    public int getEpisodes() {
+        return episodes;
+    }
 
-        for (MOVE action : game.getPossibleMoves(state)) {
-            double qValue = getQValue(state, action);
+    void setEpisodes(int episodes) {
+        this.episodes = episodes;
+    }
 
-            if (qValue > maxQValue || bestAction == -1) {
-                maxQValue = qValue;
-                bestAction = mapMoveToIndex(action);
-            }
+    /**
+     * Checkpoints of copies of the tables as they are now, one per maze, for the given training progress.
+     */
+    List<QTableCheckpoint> checkpoints(int episodes, double explorationRate) {
+        List<QTableCheckpoint> checkpoints = new ArrayList<>();
+        for (QTable table : qTables.getTables()) {
+            checkpoints.add(new QTableCheckpoint(table.getMazeIndex(), table.getStates(), learningRate, discountRate,
+                    episodes, explorationRate, table.snapshot()));
         }
+        return checkpoints;
+    }
 
-        return mapIndexToMove(bestAction);
+    private double computeValueFromQValues(int state) {
+        return qTable.max(state, game.getPossibleMoves(state));
+    }
+
+    private MOVE computeActionFromValues(int state) {
+        return qTable.argmax(state, game.getPossibleMoves(state));
     }
 
     private MOVE getAction(int state, double epsilon) {
         return (epsilon < explorationRate) ? getRandomMove() : computeActionFromValues(state);
     }
 
-    private double getUpdatedValue(int state, MOVE action, int newState, double reward) {
-        double currentValue = getQValue(state, action);
-
-        double updatedValue = reward + (discountRate * computeValueFromQValues(newState));
-
-        return (1 - learningRate) * currentValue + learningRate * updatedValue;
+    private double getTargetValue(int newState, double reward) {
+        return reward + (discountRate * computeValueFromQValues(newState));
     }
 
     private double calculateReward(int state, MOVE action) {
@@ -168,55 +221,23 @@ public class QLearningPacMan extends PacmanController {
         return reward - 0.01;
     }
 
+    // The table of the current maze, which changes with the level
     private void initializeQTable() {
-        if (qTable == null || qTable.isEmpty()) {
-            for (int i = 0; i < game.getCurrentMaze().graph.length; i++) {
-                ArrayList<Double> row = new ArrayList<>();
-                for (int j = 0; j < STATE_SIZE; j++) {
-                    row.add(0.0);
-                }
-                qTable.add(row);
-            }
+        if (qTable == null || qTable.getMazeIndex() != game.getMazeIndex()) {
+            qTable = qTables.forGame(game);
         }
     }
 
-    private int mapMoveToIndex(MOVE move) {
-        switch (move) {
-            case LEFT:
-                return 0;
-            case DOWN:
-                return 1;
-            case RIGHT:
-                return 2;
-            case UP:
-                return 3;
-            case NEUTRAL:
-                return 4;
-            default:
-                return 4;
-        }
-    }
-
-    private MOVE mapIndexToMove(int move) {
-        switch (move) {
-            case 0:
-                return MOVE.LEFT;
-            case 1:
-                return MOVE.DOWN;
-            case 2:
-                return MOVE.RIGHT;
-            case 3:
-                return MOVE.UP;
-            case 4:
-                return MOVE.NEUTRAL;
-            default:
-                return MOVE.NEUTRAL;
-        }
+    /**
+     * @return this learner's tables, so they can be shared
+     */
+    QTableRegistry getQTables() {
+        return qTables;
     }
 
     private MOVE getRandomMove() {
         MOVE[] possibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex, pacmanLastMoveMade);
 
-        return possibleMoves[RANDOM.nextInt(possibleMoves.length)];
+        return possibleMoves[random.nextInt(possibleMoves.length)];
     }
 }
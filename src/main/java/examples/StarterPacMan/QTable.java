@@ -0,0 +1,132 @@
+package examples.StarterPacMan;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import pacman.game.Constants.MOVE;
+
+/**
+ * Q-values of {@link QLearningPacMan}: one row of action values per maze node, indexed by {@link MOVE#ordinal()}, all
+ * in one flat array. A table can be shared by several learners playing in parallel. Reads do not lock (Hogwild
+ * style), while every update of a row runs under one of a fixed set of striped locks, so two learners updating the
+ * same state never lose each other's update.
+ */
+public class QTable {
+    static final int ACTIONS = MOVE.values().length;
+
+    private static final int STRIPES = 64;
+    // Column order of exported tables, the one of the checked-in Q-Table.txt
+    private static final MOVE[] EXPORT_ORDER = {MOVE.LEFT, MOVE.DOWN, MOVE.RIGHT, MOVE.UP, MOVE.NEUTRAL};
+    private final double[] values;
+    private final int mazeIndex;
+    private final int states;
+    private final Object[] locks = new Object[STRIPES];
+
+    /**
+     * @param mazeIndex the maze whose nodes are the states
+     * @param states    the number of nodes of that maze
+     */
+    public QTable(int mazeIndex, int states) {
+        this(mazeIndex, states, new double[states * ACTIONS]);
+    }
+
+    /**
+     * A table with the values of the checkpoint.
+     */
+    QTable(QTableCheckpoint checkpoint) {
+        this(checkpoint.mazeIndex, checkpoint.states, checkpoint.values);
+    }
+
+    private QTable(int mazeIndex, int states, double[] values) {
+        this.mazeIndex = mazeIndex;
+        this.states = states;
+        this.values = values;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public int getMazeIndex() {
+        return mazeIndex;
+    }
+
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Bytes taken by the values.
+     */
+    public long getMemoryBytes() {
+        return 8L * values.length;
+    }
+
+    /**
+     * A copy of all values, for a checkpoint. Updates are not paused, so values updated during the copy may be from
+     * just before or just after the update.
+     */
+    double[] snapshot() {
+        return values.clone();
+    }
+
+    public double get(int state, MOVE action) {
+        return values[state * ACTIONS + action.ordinal()];
+    }
+
+    /**
+     * The highest value among the given moves in the state, 0 if there are none.
+     */
+    public double max(int state, MOVE[] actions) {
+        int row = state * ACTIONS;
+        double max = 0;
+        for (int i = 0; i < actions.length; i++) {
+            double value = values[row + actions[i].ordinal()];
+            if (i == 0 || value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * The first of the given moves with the highest value in the state, NEUTRAL if there are none.
+     */
+    public MOVE argmax(int state, MOVE[] actions) {
+        int row = state * ACTIONS;
+        MOVE best = MOVE.NEUTRAL;
+        double max = 0;
+        for (int i = 0; i < actions.length; i++) {
+            double value = values[row + actions[i].ordinal()];
+            if (i == 0 || value > max) {
+                max = value;
+                best = actions[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves Q(state, action) towards the target by the learning rate, atomically with respect to other updates.
+     */
+    public void update(int state, MOVE action, double target, double learningRate) {
+        int index = state * ACTIONS + action.ordinal();
+        synchronized (locks[state % STRIPES]) {
+            values[index] = (1 - learningRate) * values[index] + learningRate * target;
+        }
+    }
+
+    /**
+     * Writes one line per state with its values in the order LEFT, DOWN, RIGHT, UP, NEUTRAL, as tables were always
+     * exported.
+     */
+    public void export(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int state = 0; state < states; state++) {
+            line.setLength(0);
+            for (MOVE action : EXPORT_ORDER) {
+                line.append(values[state * ACTIONS + action.ordinal()]).append(' ');
+            }
+            writer.write(line.append('\n').toString());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package examples.StarterPacMan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A saved {@link QTable} together with what is needed to resume training from it: the learning parameters, the
+ * number of episodes played and the exploration rate reached.
+ * <p>
+ * Layout: header (magic, version, maze index, states, actions, learning rate, discount rate, episodes, exploration
+ * rate, CRC32 of the values), then the values as doubles, state by state in {@link pacman.game.Constants.MOVE} order.
+ * A checkpoint is read through a memory-mapped file straight into the table. It is written to a temporary file that
+ * then replaces the old one, so a crash while writing leaves the previous checkpoint intact.
+ */
+final class QTableCheckpoint {
+    static final int MAGIC = 0x504d5154; // "PMQT"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 4 + 4 + 4 + 8 + 8 + 4 + 8 + 4;
+
+    final int mazeIndex;
+    final int states;
+    final double learningRate;
+    final double discountRate;
+    final int episodes;
+    final double explorationRate;
+    final double[] values;
+
+    QTableCheckpoint(int mazeIndex, int states, double learningRate, double discountRate, int episodes,
+                     double explorationRate, double[] values) {
+        this.mazeIndex = mazeIndex;
+        this.states = states;
+        this.learningRate = learningRate;
+        this.discountRate = discountRate;
+        this.episodes = episodes;
+        this.explorationRate = explorationRate;
+        this.values = values;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file next to the given one and moves it into place.
+     */
+    void write(String fileName) throws IOException {
+        Path file = Paths.get(fileName).toAbsolutePath();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + values.length * 8);
+        buffer.position(HEADER_SIZE);
+        buffer.asDoubleBuffer().put(values);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, values.length * 8);
+
+        buffer.position(0);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(mazeIndex);
+        buffer.putInt(states);
+        buffer.putInt(QTable.ACTIONS);
+        buffer.putDouble(learningRate);
+        buffer.putDouble(discountRate);
+        buffer.putInt(episodes);
+        buffer.putDouble(explorationRate);
+        buffer.putInt((int) crc.getValue());
+        buffer.position(0);
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write}.
+     *
+     * @throws IOException if the file cannot be read, is not a checkpoint or is damaged
+     */
+    static QTableCheckpoint read(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(fileName + " is not a Q-table checkpoint");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(fileName + " is not a Q-table checkpoint");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported Q-table checkpoint version " + version + " in " + fileName);
+            }
+            int mazeIndex = buffer.getInt();
+            int states = buffer.getInt();
+            int actions = buffer.getInt();
+            double learningRate = buffer.getDouble();
+            double discountRate = buffer.getDouble();
+            int episodes = buffer.getInt();
+            double explorationRate = buffer.getDouble();
+            int checksum = buffer.getInt();
+            if (actions != QTable.ACTIONS || states < 0 || size != HEADER_SIZE + (long) states * actions * 8) {
+                throw new IOException("Damaged Q-table checkpoint " + fileName + ": " + states + " states of "
+                        + actions + " actions in " + size + " bytes");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Damaged Q-table checkpoint " + fileName + ": checksum mismatch");
+            }
+            buffer.position(HEADER_SIZE);
+            double[] values = new double[states * actions];
+            buffer.asDoubleBuffer().get(values);
+            return new QTableCheckpoint(mazeIndex, states, learningRate, discountRate, episodes, explorationRate, values);
+        }
+    }
+}
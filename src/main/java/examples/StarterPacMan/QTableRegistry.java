@@ -0,0 +1,91 @@
+package examples.StarterPacMan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import pacman.game.Game;
+
+/**
+ * The {@link QTable}s of {@link QLearningPacMan}, one per maze, since node indices only mean something within their
+ * own maze. A table is allocated, sized from its maze, the first time a game is on that maze. The registry can be
+ * shared by several learners playing in parallel.
+ */
+public class QTableRegistry {
+    private final Map<Integer, QTable> tables = new ConcurrentSkipListMap<>();
+
+    /**
+     * The table of the maze the game is on, allocated if this is the first visit.
+     *
+     * @throws IllegalStateException if the maze's table, for example one loaded from a checkpoint, does not have a
+     *                               state for every node of the maze
+     */
+    public QTable forGame(Game game) {
+        int nodes = game.getCurrentMaze().graph.length;
+        QTable table = tables.get(game.getMazeIndex());
+        if (table == null) {
+            table = tables.computeIfAbsent(game.getMazeIndex(), mazeIndex -> new QTable(mazeIndex, nodes));
+        }
+        if (table.getStates() != nodes) {
+            throw new IllegalStateException("The Q-table of maze " + table.getMazeIndex() + " has " + table.getStates()
+                    + " states but the maze has " + nodes + " nodes, it was trained on another version of the maze");
+        }
+        return table;
+    }
+
+    /**
+     * The table of the given maze, null if that maze has not been visited.
+     */
+    public QTable get(int mazeIndex) {
+        return tables.get(mazeIndex);
+    }
+
+    /**
+     * Adds the table, replacing the one of the same maze.
+     */
+    void put(QTable table) {
+        tables.put(table.getMazeIndex(), table);
+    }
+
+    /**
+     * The tables allocated so far, by maze index.
+     */
+    public List<QTable> getTables() {
+        return new ArrayList<>(tables.values());
+    }
+
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (QTable table : tables.values()) {
+            bytes += table.getMemoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * One line per table: maze, states and memory.
+     */
+    public String memoryReport() {
+        StringBuilder report = new StringBuilder();
+        for (QTable table : tables.values()) {
+            report.append(String.format("maze %d: %d states, %d bytes%n",
+                    table.getMazeIndex(), table.getStates(), table.getMemoryBytes()));
+        }
+        report.append(String.format("total: %d bytes%n", getMemoryBytes()));
+        return report.toString();
+    }
+
+    /**
+     * The file of the given maze's table for a file name shared by all mazes: "Q-Table.bin" becomes "Q-Table-0.bin"
+     * for the first maze.
+     */
+    static String fileForMaze(String fileName, int mazeIndex) {
+        int dot = fileName.lastIndexOf('.');
+        int separator = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        if (dot <= separator + 1) {
+            return fileName + "-" + mazeIndex;
+        }
+        return fileName.substring(0, dot) + "-" + mazeIndex + fileName.substring(dot);
+    }
+}
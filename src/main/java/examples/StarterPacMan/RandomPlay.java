@@ -0,0 +1,31 @@
+package examples.StarterPacMan;
+
+import pacman.game.Constants.GHOST;
+import pacman.game.Constants.MOVE;
+import pacman.game.Game;
+
+import java.util.EnumMap;
+import java.util.Random;
+
+/**
+ * Random legal play for the differential checks, {@link ForwardModelCheck} and {@link ParallelSearchCheck}.
+ */
+final class RandomPlay {
+	private static final GHOST[] GHOSTS = GHOST.values();
+
+	/**
+	 * A random move for Ms Pac-Man, who turns only at junctions, and a random legal move for every ghost outside the
+	 * lair, put into ghostMoves, so the engine never has to pick one at random.
+	 */
+	static MOVE randomMove(Game game, Random random, EnumMap<GHOST, MOVE> ghostMoves) {
+		ghostMoves.clear();
+		for (GHOST ghost : GHOSTS) {
+			if (game.getGhostLairTime(ghost) == 0) {
+				MOVE[] moves = game.getPossibleMoves(game.getGhostCurrentNodeIndex(ghost), game.getGhostLastMoveMade(ghost));
+				ghostMoves.put(ghost, moves[random.nextInt(moves.length)]);
+			}
+		}
+		MOVE[] moves = game.getPossibleMoves(game.getPacmanCurrentNodeIndex(), game.getPacmanLastMoveMade());
+		return moves.length == 0 ? MOVE.NEUTRAL : moves[random.nextInt(moves.length)];
+	}
+}
@@ -0,0 +1,13 @@
+package examples.StarterPacMan;
+
+/**
+ * Marker for controllers that only read the {@link pacman.game.Game} they are given and never use it after getMove
+ * returns. In its synchronous loops {@link MyExecutor} hands such controllers the live game instead of a private
+ * deep copy, which saves one or two full copies per tick.
+ * <p>
+ * A Pac-Man controller only gets the live game when Pac-Man is fully observable, since the partially observable copy
+ * is what hides the unseen information. For the ghost team the marker is checked on the controller passed to the
+ * executor, before it is copied.
+ */
+public interface ReadOnlyController {
+}
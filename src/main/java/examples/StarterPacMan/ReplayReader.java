@@ -0,0 +1,183 @@
+package examples.StarterPacMan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a replay written by {@link ReplayWriter} through a memory-mapped file. {@link #seek(int)} jumps to the closest
+ * keyframe at or before the requested tick and applies the deltas from there, so any tick can be reached without
+ * decoding the replay from the start.
+ */
+final class ReplayReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int[] keyframeTicks;
+    private final long[] keyframeOffsets;
+    private final int tickCount;
+    private final StringBuilder state = new StringBuilder();
+    private String[] fields;
+    private int tick = -1;
+    private int position;
+
+    ReplayReader(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        if (data.capacity() < 30 || data.getInt(0) != ReplayWriter.MAGIC || data.getInt(data.capacity() - 4) != ReplayWriter.MAGIC) {
+            channel.close();
+            throw new IOException(fileName + " is not a complete replay file");
+        }
+        int footer = data.capacity() - 20;
+        int indexOffset = (int) data.getLong(footer);
+        int keyframes = data.getInt(footer + 8);
+        tickCount = data.getInt(footer + 12);
+
+        keyframeTicks = new int[keyframes];
+        keyframeOffsets = new long[keyframes];
+        for (int i = 0; i < keyframes; i++) {
+            keyframeTicks[i] = data.getInt(indexOffset + i * 12);
+            keyframeOffsets[i] = data.getLong(indexOffset + i * 12 + 4);
+        }
+    }
+
+    /**
+     * @return true if the file starts with the binary replay header, false for the old text replays
+     */
+    static boolean isBinaryReplay(String fileName) {
+        Path path = Paths.get(fileName);
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            return file.read(header, 0) == 4 && header.getInt(0) == ReplayWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    int getTickCount() {
+        return tickCount;
+    }
+
+    int getTick() {
+        return tick;
+    }
+
+    boolean hasNext() {
+        return tick + 1 < tickCount;
+    }
+
+    /**
+     * @return the game state of the next tick
+     */
+    String next() {
+        if (tick < 0) {
+            return seek(0);
+        }
+        readRecord();
+        tick++;
+        return currentState();
+    }
+
+    /**
+     * @return the game state at the given tick
+     */
+    String seek(int target) {
+        if (target < 0 || target >= tickCount) {
+            throw new IndexOutOfBoundsException("Tick " + target + " outside replay of " + tickCount + " ticks");
+        }
+        // Only go back to a keyframe if it is closer than stepping forward from where we are
+        int keyframe = findKeyframe(target);
+        if (tick < 0 || target < tick || keyframeTicks[keyframe] > tick) {
+            position = (int) keyframeOffsets[keyframe];
+            tick = keyframeTicks[keyframe] - 1;
+        }
+        while (tick < target) {
+            readRecord();
+            tick++;
+        }
+        return currentState();
+    }
+
+    private int findKeyframe(int target) {
+        int low = 0;
+        int high = keyframeTicks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframeTicks[mid] <= target) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void readRecord() {
+        int length = data.getInt(position);
+        int p = position + 4;
+        position = p + length;
+
+        byte type = data.get(p++);
+        int count = data.getShort(p) & 0xFFFF;
+        p += 2;
+
+        if (type == ReplayWriter.KEYFRAME) {
+            fields = new String[count];
+            for (int i = 0; i < count; i++) {
+                int fieldLength = data.getShort(p) & 0xFFFF;
+                fields[i] = readString(p + 2, fieldLength);
+                p += 2 + fieldLength;
+            }
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int index = data.getShort(p) & 0xFFFF;
+            byte op = data.get(p + 2);
+            p += 3;
+            if (op == ReplayWriter.FIELD_REPLACE) {
+                int fieldLength = data.getShort(p) & 0xFFFF;
+                fields[index] = readString(p + 2, fieldLength);
+                p += 2 + fieldLength;
+            } else {
+                int changes = data.getShort(p) & 0xFFFF;
+                p += 2;
+                char[] chars = fields[index].toCharArray();
+                for (int c = 0; c < changes; c++) {
+                    chars[data.getShort(p) & 0xFFFF] = (char) (data.get(p + 2) & 0xFF);
+                    p += 3;
+                }
+                fields[index] = new String(chars);
+            }
+        }
+    }
+
+    private String readString(int offset, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (data.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private String currentState() {
+        state.setLength(0);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                state.append(',');
+            }
+            state.append(fields[i]);
+        }
+        return state.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,202 @@
+package examples.StarterPacMan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams a game replay to disk while the game is running. Instead of the full {@link pacman.game.Game#getGameState()}
+ * string for every tick, only the comma separated fields that changed since the previous tick are written. A full
+ * keyframe is written every keyframeInterval ticks and the keyframe offsets are appended as an index on close, so
+ * {@link ReplayReader} can seek to any tick without decoding the whole file.
+ * <p>
+ * Layout: header (magic, version, keyframe interval), one length-prefixed record per tick, the keyframe index and
+ * a footer (index offset, keyframe count, tick count, magic). Within a delta record a changed field is either stored
+ * whole or, if it has the same length as before (e.g. the pill bit strings), as a list of changed characters.
+ */
+final class ReplayWriter implements Closeable {
+    static final int MAGIC = 0x504d5250; // "PMRP"
+    static final short VERSION = 1;
+    static final byte KEYFRAME = 0;
+    static final byte DELTA = 1;
+    static final byte FIELD_REPLACE = 0;
+    static final byte FIELD_PATCH = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int keyframeInterval;
+    private int[] keyframeTicks = new int[64];
+    private long[] keyframeOffsets = new long[64];
+    private int keyframes;
+    private int ticks;
+    private long position;
+    private String[] previous;
+
+    ReplayWriter(String fileName, int keyframeInterval) throws IOException {
+        this.keyframeInterval = keyframeInterval;
+        this.channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ensure(10);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(keyframeInterval);
+        position += 10;
+    }
+
+    /**
+     * Appends the state of the next tick.
+     */
+    void append(String gameState) throws IOException {
+        String[] fields = gameState.split(",", -1);
+        boolean keyframe = previous == null || ticks % keyframeInterval == 0 || previous.length != fields.length;
+
+        ByteBuffer record = keyframe ? encodeKeyframe(fields) : encodeDelta(fields);
+        if (keyframe) {
+            addKeyframe(ticks, position);
+        }
+        ensure(4 + record.remaining());
+        buffer.putInt(record.remaining());
+        position += 4 + record.remaining();
+        buffer.put(record);
+
+        previous = fields;
+        ticks++;
+    }
+
+    private ByteBuffer encodeKeyframe(String[] fields) {
+        int size = 1 + 2;
+        for (String field : fields) {
+            size += 2 + field.length();
+        }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.put(KEYFRAME);
+        record.putShort((short) fields.length);
+        for (String field : fields) {
+            putString(record, field);
+        }
+        record.flip();
+        return record;
+    }
+
+    private ByteBuffer encodeDelta(String[] fields) {
+        int size = 1 + 2;
+        int changed = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].equals(previous[i])) {
+                changed++;
+                size += 2 + 1 + Math.min(fieldSize(fields[i]), patchSize(previous[i], fields[i]));
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.put(DELTA);
+        record.putShort((short) changed);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            String old = previous[i];
+            if (field.equals(old)) {
+                continue;
+            }
+            record.putShort((short) i);
+            if (patchSize(old, field) < fieldSize(field)) {
+                record.put(FIELD_PATCH);
+                int count = 0;
+                for (int c = 0; c < field.length(); c++) {
+                    if (field.charAt(c) != old.charAt(c)) {
+                        count++;
+                    }
+                }
+                record.putShort((short) count);
+                for (int c = 0; c < field.length(); c++) {
+                    if (field.charAt(c) != old.charAt(c)) {
+                        record.putShort((short) c);
+                        record.put((byte) field.charAt(c));
+                    }
+                }
+            } else {
+                record.put(FIELD_REPLACE);
+                putString(record, field);
+            }
+        }
+        record.flip();
+        return record;
+    }
+
+    private static int fieldSize(String field) {
+        return 2 + field.length();
+    }
+
+    private static int patchSize(String old, String field) {
+        if (old.length() != field.length()) {
+            return Integer.MAX_VALUE;
+        }
+        int size = 2;
+        for (int c = 0; c < field.length(); c++) {
+            if (field.charAt(c) != old.charAt(c)) {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    private static void putString(ByteBuffer record, String value) {
+        record.putShort((short) value.length());
+        record.put(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void addKeyframe(int tick, long offset) {
+        if (keyframes == keyframeTicks.length) {
+            int[] ticksCopy = new int[keyframes * 2];
+            long[] offsetsCopy = new long[keyframes * 2];
+            System.arraycopy(keyframeTicks, 0, ticksCopy, 0, keyframes);
+            System.arraycopy(keyframeOffsets, 0, offsetsCopy, 0, keyframes);
+            keyframeTicks = ticksCopy;
+            keyframeOffsets = offsetsCopy;
+        }
+        keyframeTicks[keyframes] = tick;
+        keyframeOffsets[keyframes] = offset;
+        keyframes++;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Replay record of " + bytes + " bytes exceeds buffer size " + BUFFER_SIZE);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = position;
+            for (int i = 0; i < keyframes; i++) {
+                ensure(12);
+                buffer.putInt(keyframeTicks[i]);
+                buffer.putLong(keyframeOffsets[i]);
+            }
+            ensure(20);
+            buffer.putLong(indexOffset);
+            buffer.putInt(keyframes);
+            buffer.putInt(ticks);
+            buffer.putInt(MAGIC);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
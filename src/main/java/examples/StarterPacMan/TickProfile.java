@@ -0,0 +1,114 @@
+package examples.StarterPacMan;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Locale;
+
+/**
+ * Per-experiment latency breakdown of the executor's tick loop: one {@link LatencyHistogram} for each phase of a tick
+ * plus the number of controller calls that returned after their timeDue.
+ */
+public final class TickProfile {
+    public enum Phase {
+        PACMAN_MOVE,
+        GHOST_MOVE,
+        GAME_COPY,
+        ADVANCE_GAME,
+    }
+
+    private final EnumMap<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private long pacManOverruns;
+    private long ghostOverruns;
+
+    public TickProfile() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    void pacManOverrun() {
+        pacManOverruns++;
+    }
+
+    void ghostOverrun() {
+        ghostOverruns++;
+    }
+
+    void merge(TickProfile other) {
+        for (Phase phase : Phase.values()) {
+            histograms.get(phase).merge(other.histograms.get(phase));
+        }
+        pacManOverruns += other.pacManOverruns;
+        ghostOverruns += other.ghostOverruns;
+    }
+
+    public long getCount(Phase phase) {
+        return histograms.get(phase).getCount();
+    }
+
+    /**
+     * @return the given percentile of the phase latency in milliseconds
+     */
+    public double getPercentile(Phase phase, double percentile) {
+        return histograms.get(phase).getPercentile(percentile) / 1e6;
+    }
+
+    public long getPacManOverruns() {
+        return pacManOverruns;
+    }
+
+    public long getGhostOverruns() {
+        return ghostOverruns;
+    }
+
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("phase, count, mean_ms, p50_ms, p99_ms, p99.9_ms, max_ms, overruns\n");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            writer.write(String.format(Locale.ROOT, "%s, %d, %.4f, %.4f, %.4f, %.4f, %.4f, %d%n",
+                    phase,
+                    histogram.getCount(),
+                    histogram.getMean() / 1e6,
+                    histogram.getPercentile(50) / 1e6,
+                    histogram.getPercentile(99) / 1e6,
+                    histogram.getPercentile(99.9) / 1e6,
+                    histogram.getMax() / 1e6,
+                    overruns(phase)));
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            json.append(String.format(Locale.ROOT,
+                    "\"%s\": {\"count\": %d, \"meanMs\": %.4f, \"p50Ms\": %.4f, \"p99Ms\": %.4f, \"p999Ms\": %.4f, \"maxMs\": %.4f, \"overruns\": %d}, ",
+                    phase,
+                    histogram.getCount(),
+                    histogram.getMean() / 1e6,
+                    histogram.getPercentile(50) / 1e6,
+                    histogram.getPercentile(99) / 1e6,
+                    histogram.getPercentile(99.9) / 1e6,
+                    histogram.getMax() / 1e6,
+                    overruns(phase)));
+        }
+        json.setLength(json.length() - 2);
+        return json.append('}').toString();
+    }
+
+    private long overruns(Phase phase) {
+        switch (phase) {
+            case PACMAN_MOVE:
+                return pacManOverruns;
+            case GHOST_MOVE:
+                return ghostOverruns;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package examples.StarterPacMan;
+
+/**
+ * A fixed-size table of search results keyed by state hash, typically {@link ForwardModel#hash()} as in
+ * {@link LookaheadPacMan}, so a search that reaches a state it has already evaluated by another order of moves can
+ * reuse the result instead of searching the subtree again.
+ * <p>
+ * Entries live in flat primitive arrays, with open addressing over a bucket of {@link #BUCKET} slots. When a bucket
+ * is full, the entry from the oldest search goes first and, among entries of the same age, the one searched least
+ * deep. Call {@link #newSearch()} once per tick so results from earlier ticks make way for the current ones without
+ * ever clearing the table.
+ * <p>
+ * Not thread safe: one table per search.
+ */
+final class TranspositionTable {
+	static final int BUCKET = 4;
+	static final int NO_MOVE = -1;
+
+	private final int mask;
+	private final long[] keys;
+	private final float[] values;
+	private final byte[] depths;
+	private final byte[] moves;
+	private final byte[] ages;
+
+	private byte age;
+	private long probes;
+	private long hits;
+
+	/**
+	 * @param capacity number of entries, rounded up to a power of two
+	 */
+	TranspositionTable(int capacity) {
+		int size = Integer.highestOneBit(Math.max(BUCKET, capacity - 1) << 1);
+		mask = size - 1;
+		keys = new long[size];
+		values = new float[size];
+		depths = new byte[size];
+		moves = new byte[size];
+		ages = new byte[size];
+	}
+
+	/**
+	 * Starts a new search: entries stored from now on replace the older ones first.
+	 */
+	void newSearch() {
+		age++;
+	}
+
+	/**
+	 * Returns the slot holding the key, or -1.
+	 */
+	int find(long key) {
+		key = nonZero(key);
+		probes++;
+		int slot = (int) (key ^ key >>> 32) & mask;
+		for (int i = 0; i < BUCKET; i++, slot = slot + 1 & mask) {
+			if (keys[slot] == key) {
+				hits++;
+				return slot;
+			}
+			if (keys[slot] == 0) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	float value(int slot) {
+		return values[slot];
+	}
+
+	int depth(int slot) {
+		return depths[slot];
+	}
+
+	/**
+	 * Whether the entry was stored since the last {@link #newSearch()}. Older entries come from another root, and
+	 * their values may rest on timers the hash leaves out, so they are only good for move ordering.
+	 */
+	boolean isCurrent(int slot) {
+		return ages[slot] == age;
+	}
+
+	/**
+	 * The best move stored with the entry, or {@link #NO_MOVE}.
+	 */
+	int move(int slot) {
+		return moves[slot];
+	}
+
+	/**
+	 * Stores a result, keeping an existing entry for the key from this search if that one was searched deeper.
+	 *
+	 * @param depth how deep below the state the value was searched, capped at 127
+	 * @param move  the best move found, or {@link #NO_MOVE}
+	 */
+	void store(long key, float value, int depth, int move) {
+		key = nonZero(key);
+		depth = Math.min(depth, Byte.MAX_VALUE);
+		int slot = (int) (key ^ key >>> 32) & mask;
+		int victim = -1;
+		for (int i = 0; i < BUCKET; i++, slot = slot + 1 & mask) {
+			if (keys[slot] == key) {
+				if (ages[slot] == age && depths[slot] > depth) {
+					return;
+				}
+				victim = slot;
+				break;
+			}
+			if (keys[slot] == 0) {
+				victim = slot;
+				break;
+			}
+			if (victim == -1 || isWorse(slot, victim)) {
+				victim = slot;
+			}
+		}
+		keys[victim] = key;
+		values[victim] = value;
+		depths[victim] = (byte) depth;
+		moves[victim] = (byte) move;
+		ages[victim] = age;
+	}
+
+	/**
+	 * Whether the entry in slot is a better one to replace than the entry in other: older, or as old and shallower.
+	 */
+	private boolean isWorse(int slot, int other) {
+		int slotAge = (age - ages[slot]) & 0xFF;
+		int otherAge = (age - ages[other]) & 0xFF;
+		if (slotAge != otherAge) {
+			return slotAge > otherAge;
+		}
+		return depths[slot] < depths[other];
+	}
+
+	/**
+	 * Slot lookups since the table was created.
+	 */
+	long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Lookups that found their key.
+	 */
+	long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Memory taken by the entries, in bytes.
+	 */
+	long getMemoryBytes() {
+		return (long) keys.length * (Long.BYTES + Float.BYTES + 3);
+	}
+
+	// Zero marks an empty slot
+	private static long nonZero(long key) {
+		return key == 0 ? 1 : key;
+	}
+}
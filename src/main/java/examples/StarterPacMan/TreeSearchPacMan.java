@@ -1,36 +1,108 @@
 package examples.StarterPacMan;
 
-import pacman.Executor;
 import pacman.controllers.PacmanController;
-import pacman.game.Constants;
-import pacman.game.Constants.DM;
 import pacman.game.Constants.GHOST;
 import pacman.game.Constants.MOVE;
 import pacman.game.Game;
 import pacman.game.GameView;
 
 import java.awt.Color;
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /*
  * This is the class you need to modify for your entry. In particular, you need to
  * fill in the getMove() method. Any additional classes you write should either
  * be placed in this package or sub-packages (e.g., entrants.pacman.username).
  */
-public class TreeSearchPacMan extends PacmanController {
-	 private static final Random RANDOM = new Random(); 
+public class TreeSearchPacMan extends PacmanController implements ReadOnlyController {
+	 private static final GHOST[] GHOSTS = GHOST.values();
+	 private final Random random = new Random(); 
 	 private Game game;
 	 private int pacmanCurrentNodeIndex;
 	 MOVE pacmanLastMoveMade; 
 	 int pathLengthBase = 94; // 70, 70 // Make it longer when no pills around
-	 int minGhostDistanceBase = 100; // 80, 100
-	 private List<Path> paths = new ArrayList<>();
+	 int safetyHorizon = 20; // Ticks ahead in which a ghost getting somewhere before Ms Pac-Man makes a path unsafe
+	 boolean verbose = false; // Print and draw every path
+	 boolean pillTour = true; // With no pills in reach, head along PillTourPlanner's tour instead of a random safe way
+	 
+	 // Anytime mode: deepen the path length step by step until just before timeDue
+	 private final boolean anytime;
+	 private final long safetyMargin;
+	 int minPathLength = 40;
+	 int maxPathLength = 300;
+	 int pathLengthStep = 10;
+	 long fallbackGrace = 5; // Milliseconds past the deadline the shortest search may take when even it is late
+	 private int anytimePathLength = minPathLength;
+	 
+	 // Root-parallel mode: the trees of the starting moves are searched at the same time, one of them on the calling
+	 // thread and the others on this pool; null to search them in turn
+	 private final ThreadPoolExecutor branchPool;
+	 private final BranchSearch[] branchSearches = new BranchSearch[MOVE.values().length];
+	 private final Future<?>[] branchResults = new Future<?>[MOVE.values().length];
+	 
+	 // One path tree per starting move, reused every tick
+	 private JunctionGraph graph;
+	 private final PillTracker pillTracker = new PillTracker();
+	 private final PathTree[] trees = new PathTree[MOVE.values().length];
+	 private final int[] ghostNodes = new int[GHOSTS.length];
+	 private final boolean[] ghostEdible = new boolean[GHOSTS.length];
+	 private final GhostArrivalMap ghostArrivals = new GhostArrivalMap();
+	 private final PillTourPlanner tourPlanner = new PillTourPlanner();
+	 
+	 // Results of the deepest completed search: best path value and whether there is a safe path, per starting move
+	 private final boolean[] searched = new boolean[MOVE.values().length];
+	 private final int[] branchValue = new int[MOVE.values().length];
+	 private final boolean[] branchSafe = new boolean[MOVE.values().length];
+	 private final boolean[] treeDone = new boolean[MOVE.values().length]; // Per starting move, on the last search
+	 private MOVE bestBranch;
+	 private int searchedPathLength;
+
+	 public TreeSearchPacMan() {
+		 this(false, 0);
+	 }
+	 
+	 /**
+	  * @param anytime      ignore pathLengthBase and search as deep as timeDue allows instead
+	  * @param safetyMargin milliseconds before timeDue at which an anytime search stops
+	  */
+	 public TreeSearchPacMan(boolean anytime, long safetyMargin) {
+		 this(anytime, safetyMargin, 1);
+	 }
+	 
+	 /**
+	  * @param anytime      ignore pathLengthBase and search as deep as timeDue allows instead
+	  * @param safetyMargin milliseconds before timeDue at which an anytime search stops
+	  * @param threads      number of starting moves to search at the same time, 1 to search them in turn
+	  */
+	 public TreeSearchPacMan(boolean anytime, long safetyMargin, int threads) {
+		 this.anytime = anytime;
+		 this.safetyMargin = safetyMargin;
+		 for (MOVE move : MOVE.values())
+		 {
+			 trees[move.ordinal()] = new PathTree(move);
+			 branchSearches[move.ordinal()] = new BranchSearch(trees[move.ordinal()]);
+		 }
+		 
+		 if (threads > 1)
+		 {
+			 // Idle workers time out, so abandoned controllers do not keep their threads
+			 branchPool = new ThreadPoolExecutor(threads - 1, threads - 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				 Thread thread = new Thread(runnable, "TreeSearchPacMan-branch");
+				 thread.setDaemon(true);
+				 return thread;
+			 });
+			 branchPool.allowCoreThreadTimeOut(true);
+		 }
+		 else
+			 branchPool = null;
+	 }
 	 
 	private int getRandomInt(int min, int max){
 		if (min >= max) {
@@ -47,340 +119,370 @@ public class TreeSearchPacMan extends PacmanController {
 		this.game = game;
     	pacmanCurrentNodeIndex = game.getPacmanCurrentNodeIndex();
     	pacmanLastMoveMade = game.getPacmanLastMoveMade();
+    	
+    	if (graph == null || graph.maze != game.getCurrentMaze())
+    		graph = JunctionGraph.forMaze(game);
+    	pillTracker.update(game, graph);
+    	observeGhosts();
+    	ghostArrivals.update(game, graph);
     		   	
     	// Random path length and minGhostDistance
     	int pathLength = pathLengthBase /*+ getRandomInt(-50, 10)*/;
     	
-    	// Get possible paths
-    	paths = getPaths(pathLength);
+    	// Get possible paths, the best path is the best one of the best tree
+    	if (anytime && timeDue > 0)
+    		searchAnytime(timeDue - safetyMargin);
+    	else
+    		searchPaths(pathLength, Long.MAX_VALUE);
     	
-    	// Sort the path with highest value DESC
-    	Collections.sort(paths, new PathValueComparator());
-
-    	for (Path path: paths)
-    	{
-        	path.summary(game); 
-    	}
+    	if (verbose)
+    		summary(game.getPossibleMoves(pacmanCurrentNodeIndex));
+    	
+    	// Not even one tree finished in time
+    	if (bestBranch == null)
+    		return pacmanLastMoveMade;
     	
-    	Path bestPath = paths.get(0);
-    	MOVE bestPathMove = game.getMoveToMakeToReachDirectNeighbour(pacmanCurrentNodeIndex, bestPath.start);
+    	MOVE bestPathMove = bestBranch;
+    	int bestValue = branchValue[bestBranch.ordinal()];
     	
-    	// No pills around while at junction but has safe paths, choose random safe path
-		if (bestPath.value == 0 && game.isJunction(pacmanCurrentNodeIndex))
+    	// No pills around while at junction but has safe paths, choose the safe path towards the pill tour, or a random one
+		if (bestValue == 0 && game.isJunction(pacmanCurrentNodeIndex))
 		{
-			// Get only safe paths from paths
-    		List<MOVE> safeMoves = new ArrayList<>();
-    		for (Path path: paths)
-    		{
-    			if(path.safe)
-    			{
-    				MOVE safeMove = game.getMoveToMakeToReachDirectNeighbour(pacmanCurrentNodeIndex, path.start);	
-    				safeMoves.add(safeMove);
-    			}
-    		}
-    		
-    		// Random safe path
-    		while(true)
-    		{    			
-    			MOVE randomMove = getRandomMove();
-    			if (safeMoves.contains(randomMove))
-    			{
-        			bestPathMove = randomMove;
-        			break;
-    			}   				
-    		}
+			MOVE safeMove = pillTour ? getSafeMoveTowardsTour() : null;
+			if (safeMove == null)
+				safeMove = getRandomSafeMove();
+			if (safeMove != null)
+				bestPathMove = safeMove;
 		}
 		
 		// No safe paths
-		else if (bestPath.value < 0)
+		else if (bestValue < 0)
 		{
 			bestPathMove = pacmanLastMoveMade;
 		}
 
 		// if the current best move is no better than previous move, then we maintain previous move, this is to avoid pacman flickering movement 
-    	else if (bestPathMove != pacmanLastMoveMade) 
+    	else if (bestPathMove != pacmanLastMoveMade 
+    			&& searched[pacmanLastMoveMade.ordinal()] 
+    			&& branchValue[pacmanLastMoveMade.ordinal()] == bestValue) 
 		{
-    		for (Path path: paths)
-    		{
-    			MOVE move = game.getMoveToMakeToReachDirectNeighbour(pacmanCurrentNodeIndex, path.start);
-
-    			if (move == pacmanLastMoveMade && path.value == bestPath.value)
-    			{
-    				bestPathMove = move;
-    				break;
-    			}
-    		}
+    		bestPathMove = pacmanLastMoveMade;
 		}
     	
     	return bestPathMove;
     }
     
-    private MOVE getRandomMove()
+    /**
+     * Path length of the deepest search completed on the last tick.
+     */
+    public int getSearchedPathLength()
+    {
+    	return searchedPathLength;
+    }
+    
+    /**
+     * Best path value of the starting move on the last tick, Integer.MIN_VALUE if it was not searched.
+     */
+    int getBranchValue(MOVE move)
     {
-    	MOVE[] possibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex, pacmanLastMoveMade);    	
+    	return searched[move.ordinal()] ? branchValue[move.ordinal()] : Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Whether the starting move had a safe path on the last tick.
+     */
+    boolean isBranchSafe(MOVE move)
+    {
+    	return searched[move.ordinal()] && branchSafe[move.ordinal()];
+    }
+    
+    /**
+     * Picks a random move, without reversing, that starts at least one safe path; null if there is none.
+     */
+    private MOVE getRandomSafeMove()
+    {
+    	MOVE[] possibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex, pacmanLastMoveMade);
+    	int safeMoves = 0;
+    	for (MOVE move : possibleMoves)
+    		if (searched[move.ordinal()] && branchSafe[move.ordinal()])
+    			safeMoves++;
+    	
+    	if (safeMoves == 0)
+    		return null;
     	
-    	return possibleMoves[RANDOM.nextInt(possibleMoves.length)];
+    	int pick = random.nextInt(safeMoves);
+    	for (MOVE move : possibleMoves)
+    		if (searched[move.ordinal()] && branchSafe[move.ordinal()] && pick-- == 0)
+    			return move;
+    	return null;
     }
     
-    public class PathValueComparator implements Comparator<Path>
-    {    	
-		@Override
-		public int compare(Path path1, Path path2)
-		{						
-			return path2.value - path1.value;
-		}
+    /**
+     * Picks the move, without reversing, that starts at least one safe path and gets closest to the next target of the
+     * pill tour; null if there is none.
+     */
+    private MOVE getSafeMoveTowardsTour()
+    {
+    	int target = tourPlanner.target(game, ghostArrivals, safetyHorizon);
+    	if (target == -1)
+    		return null;
+    	
+    	MOVE bestMove = null;
+    	int bestDistance = Integer.MAX_VALUE;
+    	for (MOVE move : game.getPossibleMoves(pacmanCurrentNodeIndex, pacmanLastMoveMade))
+    	{
+    		if (!searched[move.ordinal()] || !branchSafe[move.ordinal()])
+    			continue;
+    		int distance = game.getShortestPathDistance(game.getNeighbour(pacmanCurrentNodeIndex, move), target);
+    		if (distance < bestDistance)
+    		{
+    			bestDistance = distance;
+    			bestMove = move;
+    		}
+    	}
+    	return bestMove;
     }
     
-    public class Path {
-    	public int start;    	
-    	public int end;
-    	public List<GHOST> ghosts = new ArrayList<GHOST>();
-    	public int powerPillsCount = 0;  	
-    	public int pillsCount = 0;
-    	public List<Segment> segments = new ArrayList<Segment>();
-    	public int length;
-    	public String description = "";
-    	public boolean safe = true;
-    	public int value = 0;
-    	    
-    	// Important: Segments must be in sequence
-    	Path(List<Segment> segments)
+    /**
+     * Edible ghosts on a path add to its value, the dangerous ones are taken care of by the ghost arrival map.
+     */
+    private void observeGhosts()
+    {
+    	for (int i = 0; i < GHOSTS.length; i++)
     	{
-    		this.segments = segments;	  		
+    		GHOST ghost = GHOSTS[i];
+    		int ghostNode = game.getGhostCurrentNodeIndex(ghost);
+    		ghostNodes[i] = ghostNode;
+    		ghostEdible[i] = ghostNode != -1 && game.isGhostEdible(ghost);
     	}
+    }
+    
+    /**
+     * Searches with growing path lengths until the next step would probably not finish before the deadline. A search
+     * that runs past the deadline is abandoned and the results of the one before it are kept; if that happens to the
+     * first one, the shortest path length is searched instead, given fallbackGrace past the deadline, and the moves
+     * whose trees it finished are used. The next tick starts at the length reached, one step shorter if even the first
+     * search took more than half of the time.
+     */
+    private void searchAnytime(long deadline)
+    {
+    	long start = System.nanoTime();
+    	long budget = Math.max(0, deadline - System.currentTimeMillis()) * 1_000_000L;
+    	int pathLength = Math.max(minPathLength, Math.min(anytimePathLength, maxPathLength));
     	
-    	public void render(Game game)
+    	if (!searchPaths(pathLength, deadline))
     	{
-    		for (Segment segment : segments)
-    			GameView.addLines(game, segment.color, segment.start, segment.end);
+    		// Too deep for this part of the maze, fall back to the shortest search
+    		anytimePathLength = Math.max(minPathLength, pathLength / 2);
+    		searchPaths(minPathLength, deadline + fallbackGrace, true);
+    		return;
     	}
+    	long elapsed = System.nanoTime() - start;
+    	anytimePathLength = elapsed > budget / 2 ? Math.max(minPathLength, pathLength - pathLengthStep) : pathLength;
     	
-    	public void summary(Game game)
+    	long previousSize = Math.max(1, treeSize());
+    	long iteration = elapsed;
+    	while (pathLength + pathLengthStep <= maxPathLength)
     	{
-    		String ghostsName = "";
-    		for (GHOST ghost : ghosts)
-    			ghostsName += ghost.name() + " ";
-    			
-    		String text = description + "::" + " value:" + value + ", safe:" + (safe ? "safe":"unsafe") + ", pills:" + pillsCount + ", power pills:" + powerPillsCount + ", ghost:" + ghostsName;
+    		// Expect the next search to cost as much more as the trees grew on the last one
+    		long size = Math.max(1, treeSize());
+    		long estimate = iteration * Math.max(size, previousSize) / previousSize;
+    		if (System.nanoTime() - start + estimate >= budget)
+    			break;
     		
-    		if (!safe)
-    			System.err.println(text);
-    		else
-    			System.out.println(text);
+    		long iterationStart = System.nanoTime();
+    		if (!searchPaths(pathLength + pathLengthStep, deadline))
+    			break;
+    		pathLength += pathLengthStep;
+    		anytimePathLength = pathLength;
+    		iteration = System.nanoTime() - iterationStart;
+    		previousSize = size;
+    	}
+    }
+    
+    private int treeSize()
+    {
+    	int size = 0;
+    	for (MOVE move : game.getPossibleMoves(pacmanCurrentNodeIndex))
+    		size += trees[move.ordinal()].size;
+    	return size;
+    }
+    
+    private boolean searchPaths(int maxPathLength, long abortAt)
+    {
+    	return searchPaths(maxPathLength, abortAt, false);
+    }
+    
+    /**
+     * Builds the path tree of every move possible from Ms Pac-Man's node and keeps the best path value of each. Gives
+     * up, keeping the previous results, if the trees are not done by abortAt; unless partial, in which case the moves
+     * whose trees were done are kept and the others count as not searched.
+     */
+    private boolean searchPaths(int maxPathLength, long abortAt, boolean partial)
+    {
+    	MOVE[] startingPossibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex);
+    	boolean completed = true;
 
-    		render(game);
+    	// Start searching from the possible moves at the current pacman location
+    	if (branchPool != null && startingPossibleMoves.length > 1)
+    	{
+    		completed = searchBranchesInParallel(startingPossibleMoves, maxPathLength, abortAt);
+    	}
+    	else
+    	{
+    		for (MOVE startingPossibleMove : startingPossibleMoves)
+    		{
+    			PathTree tree = trees[startingPossibleMove.ordinal()];
+    			treeDone[startingPossibleMove.ordinal()] = tree.search(game, graph, pillTracker, pacmanCurrentNodeIndex, maxPathLength, ghostNodes, ghostEdible, ghostArrivals, safetyHorizon, abortAt);
+    			completed &= treeDone[startingPossibleMove.ordinal()];
+    			if (!completed && !partial)
+    				return false;
+    		}
+    	}
+    	if (!completed && !partial)
+    		return false;
+    	
+    	for (int i = 0; i < searched.length; i++)
+    		searched[i] = false;
+    	bestBranch = null;
+    	for (MOVE startingPossibleMove : startingPossibleMoves)
+    	{
+    		PathTree tree = trees[startingPossibleMove.ordinal()];
+    		if (!treeDone[tree.move.ordinal()])
+    			continue;
+    		searched[tree.move.ordinal()] = true;
+    		branchValue[tree.move.ordinal()] = tree.bestValue;
+    		branchSafe[tree.move.ordinal()] = tree.anySafe;
+    		if (bestBranch == null || tree.bestValue > branchValue[bestBranch.ordinal()])
+    			bestBranch = tree.move;
     	}
+    	searchedPathLength = maxPathLength;
+    	return completed;
+    }
     
-    	public void process()
+    /**
+     * Searches the first starting move on this thread while the pool searches the others. Every tree only touches its
+     * own buffers; the game, graph, pill counts, ghost arrays and arrival map are only read.
+     */
+    private boolean searchBranchesInParallel(MOVE[] startingPossibleMoves, int maxPathLength, long abortAt)
+    {
+    	for (int i = 1; i < startingPossibleMoves.length; i++)
     	{
-    		// TODO: calculate path value
-    		
-    		int segmentsCount = segments.size();
+    		BranchSearch branchSearch = branchSearches[startingPossibleMoves[i].ordinal()];
+    		branchSearch.maxPathLength = maxPathLength;
+    		branchSearch.abortAt = abortAt;
+    		branchResults[i] = branchPool.submit(branchSearch);
+    	}
+    	
+    	try
+    	{
+    		boolean completed = trees[startingPossibleMoves[0].ordinal()].search(game, graph, pillTracker, 
+    				pacmanCurrentNodeIndex, maxPathLength, ghostNodes, ghostEdible, ghostArrivals, safetyHorizon, abortAt);
+    		treeDone[startingPossibleMoves[0].ordinal()] = completed;
     		
-    		if(segmentsCount > 0)
+    		for (int i = 1; i < startingPossibleMoves.length; i++)
     		{
-    			Segment firstSegment = segments.get(0);
-    			Segment lastSegment = segments.get(segmentsCount - 1);
-    			start = firstSegment.start;
-    			end = lastSegment.end;
-        		length = lastSegment.lengthSoFar;
-        		pillsCount = lastSegment.pillsCount;
-        		value = pillsCount;
-        		powerPillsCount = lastSegment.powerPillsCount;
-        		int unsafeSegmentsCount = 0;      		                		
-        		
-        		for (Segment segment : segments)
-        		{              			
-        			if (!segment.ghosts.isEmpty())
-        			{
-        				ghosts.addAll(segment.ghosts);
-        				for (GHOST ghost: ghosts)
-            				if (game.isGhostEdible(ghost))
-            				{
-            					int distance = game.getShortestPathDistance(pacmanCurrentNodeIndex, game.getGhostCurrentNodeIndex(ghost));
-            					if (distance < 10)
-                					value += 1;//15;
-            					else
-            						value += 1;//10;
-            				}
-        			}
-        			
-        			if (segment.parent != null && !segment.parent.safe)
-        				segment.safe = segment.parent.safe;
-        				
-        			if (!segment.safe) 
-        			{
-        				unsafeSegmentsCount++;
-        				value -= 10;
-        				segment.color = Color.RED;
-        			}
-        			       			
-    				value += segment.powerPillsCount * 5;          				 				
-        			
-        			description += segment.direction.toString() + " ";
-        		}
-        		
-        		if (unsafeSegmentsCount > 0)
-        			safe = false;	
+    			boolean done = (Boolean) branchResults[i].get();
+    			treeDone[startingPossibleMoves[i].ordinal()] = done;
+    			completed &= done;
     		}
+    		return completed;
     	}
-    }  
+    	catch (InterruptedException e)
+    	{
+    		Thread.currentThread().interrupt();
+    		throw new IllegalStateException("Interrupted while searching paths", e);
+    	}
+    	catch (ExecutionException e)
+    	{
+    		throw new IllegalStateException("Path search failed", e.getCause());
+    	}
+    	finally
+    	{
+    		// Whatever went wrong, no branch may still be running when the trees are reused
+    		for (int i = 1; i < startingPossibleMoves.length; i++)
+    		{
+    			awaitQuietly(branchResults[i]);
+    			branchResults[i] = null;
+    		}
+    	}
+    }
     
-    public class Segment {
-    	public int start;
-    	public int end;
-    	public int pillsCount = 0;
-    	public int powerPillsCount = 0;
-    	public int lengthSoFar;
-    	public MOVE direction;
-    	public Segment parent;
-    	public List<GHOST> ghosts = new ArrayList<>();
-    	public Color color = Color.GREEN;
-    	public boolean safe = true;
+    /**
+     * Waits for a branch search to end, however it ends.
+     */
+    private static void awaitQuietly(Future<?> result)
+    {
+    	if (result == null)
+    		return;
+    	boolean interrupted = false;
+    	while (true)
+    	{
+    		try
+    		{
+    			result.get();
+    			break;
+    		}
+    		catch (InterruptedException e)
+    		{
+    			interrupted = true;
+    		}
+    		catch (ExecutionException | CancellationException e)
+    		{
+    			break;
+    		}
+    	}
+    	if (interrupted)
+    		Thread.currentThread().interrupt();
     }
     
-    public List<Path> getPaths(int maxPathLength)
+    /**
+     * Search of one starting move, submitted to the branch pool. Reused every tick, its arguments are set just before
+     * it is submitted.
+     */
+    private class BranchSearch implements Callable<Boolean>
     {
-    	MOVE[] startingPossibleMoves = game.getPossibleMoves(pacmanCurrentNodeIndex);
-    	List<Path> paths = new ArrayList<>();
-    	int minGhostDistance = minGhostDistanceBase /*+ getRandomInt(10, 30)*/;
-
-    	// Start searching from the possible moves at the current pacman location
-    	for (MOVE startingPossibleMove : startingPossibleMoves)
-		{   
-    		List<Segment> pendingSegments = new ArrayList<Segment>();
-    		
-			// Step into next node
-    		int currentNode = game.getNeighbour(pacmanCurrentNodeIndex, startingPossibleMove);
-
-    		// Create new segment starting from the node next to pacman
-    		Segment currentSegment = new Segment();
-    		currentSegment.start = currentNode;
-    		currentSegment.parent = null;
-    		currentSegment.direction = startingPossibleMove;
-    		currentSegment.lengthSoFar++;
-    		
-    		// Get all ghosts node index in a list
-    		List<Integer> ghostNodeIndices = new ArrayList<>();
-    		GHOST[] ghosts= GHOST.values();
-    		for (GHOST ghost: ghosts)
-    			ghostNodeIndices.add(game.getGhostCurrentNodeIndex(ghost));
-    		    		
-    		// Loop each step
-    		do
-    		{    			
-        		// Check pills and power pills
-				int pillIndex = game.getPillIndex(currentNode);	
-        		int powerPillIndex = game.getPowerPillIndex(currentNode);
-        		
-        		try 
-        		{
-            		if (pillIndex != -1 && game.isPillStillAvailable(pillIndex))
-            		{
-            			//GameView.addPoints(game, Color.blue, currentNode);
-        				currentSegment.pillsCount++;  	
-            		}
-            		else if (powerPillIndex != -1 && game.isPowerPillStillAvailable(powerPillIndex))
-            			currentSegment.powerPillsCount++;
-        		}
-        		catch (Exception e)
-        		{
-        			System.out.println("currentNode:" + currentNode + ", pillIndex:" + pillIndex + ", powerPillIndex:" + powerPillIndex + ", please increase executor radius size by setting Executor.Builder().setSightLimit(1000)");
-        			throw e; 
-        		}
-				
-        		// Segment contains ghost(s), not safe if ghost direction is opposite of segment direction and is not edible
-        		if (ghostNodeIndices.contains(currentNode))
-            		for (GHOST ghost: ghosts)
-            		{            			
-            			if(game.getGhostCurrentNodeIndex(ghost) == currentNode)
-            			{
-            				currentSegment.ghosts.add(ghost);
-            				
-            				if (!game.isGhostEdible(ghost) 
-            						&& game.getGhostLastMoveMade(ghost) == currentSegment.direction.opposite()
-            						&& game.getEuclideanDistance(pacmanCurrentNodeIndex, currentNode) <= minGhostDistance )
-            				{
-            					currentSegment.safe = false;
-            					if (currentSegment.parent != null)
-            						currentSegment.parent.safe = false;
-            				}
-            			}
-            		}
-		
-        		// Check if length is max
-        		if (currentSegment.lengthSoFar >= maxPathLength)
-        		{
-        			currentSegment.end = currentNode;    			
-        			//System.out.println("Current segment " + "start:" + currentSegment.start + ", end:" + currentSegment.end + ", direction:" + currentSegment.direction + ", ended");
-
-        			// Create a new path and insert segments that make up the path
-        			List<Segment> pathSegments = new ArrayList<>();
-        			do
-        			{
-        				pathSegments.add(currentSegment);
-        				currentSegment = currentSegment.parent;
-        			}while(currentSegment != null);
-        			
-        			Collections.reverse(pathSegments);      			
-        			Path path = new Path(pathSegments);
-        			paths.add(path);
-        			
-        			// Pop out the latest pending segment and set it as current segment
-        			if (!pendingSegments.isEmpty()) 
-        			{
-        				currentSegment = pendingSegments.remove(pendingSegments.size()-1);
-        				currentNode = currentSegment.start;
-        				currentSegment.lengthSoFar++;
-        				//System.out.println("Current segment " + "start:" + currentSegment.start + ", direction:" + currentSegment.direction + ", length so far:" + currentSegment.lengthSoFar + " begins");
-        				continue;
-        			}
-        			else
-        				break;				
-        		}
-    			     
-    			MOVE[] possibleMoves = game.getPossibleMoves(currentNode, currentSegment.direction);
-
-        		// If neighbor is a junction or a corner, end the current segment and create a new segment
-        		if (possibleMoves.length > 1 || (possibleMoves.length == 1 && possibleMoves[0] != currentSegment.direction))
-        		{
-        			currentSegment.end = currentNode;
-        			Segment parentSegment = currentSegment;
-        			
-        			for (int i = 0; i < possibleMoves.length; i++)
-        			{
-        				MOVE possibleMove = possibleMoves[i];  				
-        				int neighborNode = game.getNeighbour(currentNode, possibleMove);
-        				
-        				// Create new segment for each neighbor node
-        				Segment segment = new Segment();
-        				segment.start = neighborNode;
-        				segment.direction = possibleMove;
-        				segment.parent = parentSegment;
-        				segment.pillsCount = parentSegment.pillsCount;
-        				segment.powerPillsCount = parentSegment.powerPillsCount;
-        				segment.lengthSoFar = currentSegment.lengthSoFar;
-        				segment.safe = parentSegment.safe;
-        				        				
-        				if (i == 0)
-        					currentSegment = segment;
-        				else
-        					pendingSegments.add(segment);  				
-        			}
-        		}
-        		        		
-        		// Step into next node
-    			currentNode = game.getNeighbour(currentNode, currentSegment.direction);
-    			currentSegment.lengthSoFar++; 
-
-    		}while(!pendingSegments.isEmpty() || currentSegment.lengthSoFar <= maxPathLength);
-		}
+    	private final PathTree tree;
+    	int maxPathLength;
+    	long abortAt;
     	
-    	// Required to calculate the required data in each path
-    	for (Path path : paths)
-			path.process();
+    	BranchSearch(PathTree tree)
+    	{
+    		this.tree = tree;
+    	}
     	
-    	System.out.println("\nPath search complete found " + paths.size() + " path");
-    	return paths;
+		@Override
+		public Boolean call()
+		{
+			return tree.search(game, graph, pillTracker, pacmanCurrentNodeIndex, maxPathLength, ghostNodes, ghostEdible, ghostArrivals, safetyHorizon, abortAt);
+		}
+    }
+    
+    private void summary(MOVE[] startingPossibleMoves)
+    {
+    	int paths = 0;
+    	for (MOVE move : startingPossibleMoves)
+    	{
+    		PathTree tree = trees[move.ordinal()];
+    		paths += tree.paths;
+    		
+    		for (int i = 0; i < tree.size; i++)
+    		{
+    			GameView.addLines(game, tree.unsafe[i] ? Color.RED : Color.GREEN, tree.startNode(i), tree.endNode(i));
+    			if (!tree.leaf[i])
+    				continue;
+    			
+    			String description = "";
+    			for (int segment = i; segment != -1; segment = tree.parent[segment])
+    				description = MOVE.values()[JunctionGraph.direction(tree.edge[segment])] + " " + description;
+    			
+    			String text = description + "::" + " value:" + tree.value[i] + ", safe:" + (tree.unsafe[i] ? "unsafe" : "safe") + ", pills:" + tree.pills[i] + ", power pills:" + tree.powerPills[i];
+    			if (tree.unsafe[i])
+    				System.err.println(text);
+    			else
+    				System.out.println(text);
+    		}
+    	}
+    	System.out.println("\nPath search complete found " + paths + " path");
     }
-}
\ No newline at end of file
+}